@@ -1,23 +1,53 @@
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
 /**
  * Class that represents the radio channels. Has a list with episode's
- * information that is played on the radio channel.
+ * information that is played on the radio channel. A channel is filled by
+ * one update and not changed after it has been published in a snapshot.
  * @author Johan Ahlqvist
  * 2017-12-04
  */
 public class RadioChannelInfo {
 
+    private int id = 0;                 //Id of the channel.
     private String name = null;         //Name of the channel.
     private String channelType = null;  //Type of channel.
+    private String scheduleURL = null;  //Address to the channel's schedule.
+    private boolean isStale = false;    //If the schedule is from an old update.
+    private byte[] scheduleHash = null; //Hash of the schedule as served.
     /* List with episodes played on the channel. */
-    private CopyOnWriteArrayList<RadioEpisodeInfo> episodeInfoList;
+    private ArrayList<RadioEpisodeInfo> episodeInfoList;
+    /* Read only view of the episode list. */
+    private List<RadioEpisodeInfo> episodeInfoView;
+    /* Episodes by title and start time. */
+    private HashMap<String, RadioEpisodeInfo> episodesByKey;
 
     /**
      * Constructor for radio channel information.
      */
     public RadioChannelInfo() {
-        episodeInfoList = new CopyOnWriteArrayList<RadioEpisodeInfo>();
+        episodeInfoList = new ArrayList<RadioEpisodeInfo>();
+        episodeInfoView = Collections.unmodifiableList(episodeInfoList);
+        episodesByKey = new HashMap<String, RadioEpisodeInfo>();
+    }
+
+    /**
+     * Gets the id of the channel.
+     * @return  int - the id, 0 if unknown.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the channel.
+     * @param id    int - the id to be set.
+     */
+    public void setId(int id) {
+        this.id = id;
     }
 
     /**
@@ -53,32 +83,93 @@ public class RadioChannelInfo {
     }
 
     /**
-     * Adds an episode to the episode list.
+     * Gets the address to the channel's schedule.
+     * @return  String - the schedule address, null if there is none.
+     */
+    public String getScheduleURL() {
+        return scheduleURL;
+    }
+
+    /**
+     * Sets the address to the channel's schedule.
+     * @param scheduleURL   String - the schedule address.
+     */
+    public void setScheduleURL(String scheduleURL) {
+        this.scheduleURL = scheduleURL;
+    }
+
+    /**
+     * Checks if the schedule is kept from an earlier update, since it could
+     * not be fetched in the last one.
+     * @return  boolean - true if the schedule is stale, else false.
+     */
+    public boolean isStale() {
+        return isStale;
+    }
+
+    /**
+     * Sets if the schedule is kept from an earlier update.
+     * @param isStale   boolean - true if the schedule is stale, else false.
+     */
+    public void setStale(boolean isStale) {
+        this.isStale = isStale;
+    }
+
+    /**
+     * Gets the hash of the schedule pages as the server sent them, before
+     * the episodes outside the time span were left out.
+     * @return  byte[] - the hash, null if unknown.
+     */
+    public byte[] getScheduleHash() {
+        return scheduleHash;
+    }
+
+    /**
+     * Sets the hash of the schedule pages as the server sent them.
+     * @param scheduleHash  byte[] - the hash, null if unknown.
+     */
+    public void setScheduleHash(byte[] scheduleHash) {
+        this.scheduleHash = scheduleHash;
+    }
+
+    /**
+     * Adds an episode to the episode list and its indexes.
      * @param programInfo   RadioEpisodeInfo - the episode.
      */
     public void addEpisodeInfo(RadioEpisodeInfo programInfo) {
         episodeInfoList.add(programInfo);
+        episodesByKey.put(episodeKey(programInfo.getTitle(),
+                                     programInfo.getStartTime()),
+                          programInfo);
     }
 
     /**
      * Gets the list with channel's episodes.
-     * @return  CopyOnWriteArrayList - the list with episode information.
+     * @return  List - the read only list with episode information.
      */
-    public CopyOnWriteArrayList getEpisodesInfoList() {
-        return episodeInfoList;
+    public List<RadioEpisodeInfo> getEpisodesInfoList() {
+        return episodeInfoView;
     }
 
     /**
-     * Gets an episode from episode corresponding to given name.
+     * Gets the episode with given name starting at given time. Tells reruns
+     * with the same name apart.
      * @param episodeName   String - the name of episode.
+     * @param startTime     long - the start time in milliseconds.
      * @return  RadioEpisodeInfo - the found episode, else null.
      */
-    public RadioEpisodeInfo getEpisodeInfo(String episodeName) {
-        for (RadioEpisodeInfo episodeInfo : episodeInfoList) {
-            if (episodeInfo.getTitle() == episodeName) {
-                return episodeInfo;
-            }
-        }
-        return null;
+    public RadioEpisodeInfo getEpisodeInfo(String episodeName,
+                                           long startTime) {
+        return episodesByKey.get(episodeKey(episodeName, startTime));
+    }
+
+    /**
+     * Creates the index key for an episode.
+     * @param title     String - the episode's title.
+     * @param startTime long - the start time in milliseconds.
+     * @return  String - the key.
+     */
+    private static String episodeKey(String title, long startTime) {
+        return startTime + "/" + title;
     }
 }
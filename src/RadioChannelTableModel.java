@@ -0,0 +1,169 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that represents the table model for the channel table. Reads the
+ * rows from a list of channels. A new list with the same channels in the
+ * same order only updates the changed rows, and single channels can be put
+ * in their place while an update is running.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioChannelTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;   //Serial version.
+    /* The column names. */
+    private static final String[] COLUMNS = { "Name", "Type" };
+    /* The channels shown, one per row. */
+    private final List<RadioChannelInfo> channels =
+            new ArrayList<RadioChannelInfo>();
+    /* Each row's place in original order. */
+    private final List<Integer> orders = new ArrayList<Integer>();
+
+    /**
+     * Loads a list of channels into the table. If the channel ids are in the
+     * same order as before, only the rows whose channel object changed are
+     * updated, else the whole table is reloaded.
+     * @param channels  List - the channels.
+     */
+    public void setChannels(List<RadioChannelInfo> channels) {
+        orders.clear();
+        for (int i = 0; i < channels.size(); i++) {
+            orders.add(i);
+        }
+        if (!isSameOrder(this.channels, channels)) {
+            this.channels.clear();
+            this.channels.addAll(channels);
+            fireTableDataChanged();
+            return;
+        }
+        for (int row = 0; row < channels.size(); row++) {
+            if (this.channels.get(row) != channels.get(row)) {
+                this.channels.set(row, channels.get(row));
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    /**
+     * Puts a channel in the table. A row with the same channel id is
+     * replaced, a channel without an id replaces the row at the same place
+     * in original order. Else the channel is inserted before the first row
+     * that comes after it in original order.
+     * @param order         int - the channel's place in original order.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     */
+    public void putChannel(int order, RadioChannelInfo channelInfo) {
+        for (int row = 0; row < channels.size(); row++) {
+            if (isSameRow(row, order, channelInfo)) {
+                channels.set(row, channelInfo);
+                orders.set(row, order);
+                fireTableRowsUpdated(row, row);
+                return;
+            }
+        }
+        int row = 0;
+        while (row < orders.size() && orders.get(row) <= order) {
+            row++;
+        }
+        channels.add(row, channelInfo);
+        orders.add(row, order);
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Checks if a row holds the same channel as a given one. Channels with
+     * an id are the same if the ids are, channels without an id if they are
+     * at the same place in original order.
+     * @param row           int - the row.
+     * @param order         int - the channel's place in original order.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @return  boolean - true if it is the same channel, else false.
+     */
+    private boolean isSameRow(int row, int order,
+                              RadioChannelInfo channelInfo) {
+        int id = channels.get(row).getId();
+        if (channelInfo.getId() != 0) {
+            return id == channelInfo.getId();
+        }
+        return id == 0 && orders.get(row) == order;
+    }
+
+    /**
+     * Checks if two lists hold channels with the same ids in the same order.
+     * @param a List - a list of channels.
+     * @param b List - another list of channels.
+     * @return  boolean - true if the order is the same, else false.
+     */
+    private static boolean isSameOrder(List<RadioChannelInfo> a,
+                                       List<RadioChannelInfo> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).getId() != b.get(i).getId()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the row of a channel.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @return  int - the row, -1 if the channel is not shown.
+     */
+    public int getRow(RadioChannelInfo channelInfo) {
+        for (int row = 0; row < channels.size(); row++) {
+            if (channels.get(row) == channelInfo) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the channel on a row.
+     * @param row   int - the row.
+     * @return  RadioChannelInfo - the channel, null if there is no such row.
+     */
+    public RadioChannelInfo getChannelInfo(int row) {
+        if (row < 0 || row >= channels.size()) {
+            return null;
+        }
+        return channels.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return channels.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        RadioChannelInfo channelInfo = channels.get(row);
+        if (column == 0) {
+            return channelInfo.getName();
+        }
+        if (channelInfo.isStale()) {
+            return channelInfo.getChannelType() + " (not updated)";
+        }
+        return channelInfo.getChannelType();
+    }
+}
@@ -5,11 +5,17 @@
  */
 public class RadioEpisodeInfo {
 
+    private long episodeId = 0;         //The episode's id.
     private String title = null;        //The episode's title.
     private String description = null;  //The episode's description.
     private String startTimeUTC = null; //The episode's start time.
     private String endTimeUTC = null;   //The episode's end time.
     private String imageURL = null;     //The episode's image url.
+    private long startTime = 0;         //Start time in epoch milliseconds.
+    private long endTime = 0;           //End time in epoch milliseconds.
+    private String startTimeText = "";  //Start time formatted for display.
+    private String endTimeText = "";    //End time formatted for display.
+    private String timeText = null;     //Start and end time for display.
 
     /**
      * Constructor for RadioEpisodeInfo. Used for holding information about a
@@ -20,6 +26,22 @@ public class RadioEpisodeInfo {
         setTitle(title);
     }
 
+    /**
+     * Gets the episode's id.
+     * @return  long - the id, 0 if unknown.
+     */
+    public long getEpisodeId() {
+        return episodeId;
+    }
+
+    /**
+     * Sets the episode's id.
+     * @param episodeId long - the id.
+     */
+    public void setEpisodeId(long episodeId) {
+        this.episodeId = episodeId;
+    }
+
     /**
      * Gets the episode's title.
      * @return  String - the title.
@@ -99,4 +121,82 @@ public class RadioEpisodeInfo {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    /**
+     * Gets the start time in milliseconds since epoch.
+     * @return  long - the start time.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Sets the start time in milliseconds since epoch.
+     * @param startTime long - the start time.
+     */
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * Gets the end time in milliseconds since epoch.
+     * @return  long - the end time.
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Sets the end time in milliseconds since epoch.
+     * @param endTime   long - the end time.
+     */
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    /**
+     * Gets the start time formatted for display.
+     * @return  String - the formatted start time.
+     */
+    public String getStartTimeText() {
+        return startTimeText;
+    }
+
+    /**
+     * Sets the start time formatted for display.
+     * @param startTimeText String - the formatted start time.
+     */
+    public void setStartTimeText(String startTimeText) {
+        this.startTimeText = startTimeText;
+        timeText = null;
+    }
+
+    /**
+     * Gets the end time formatted for display.
+     * @return  String - the formatted end time.
+     */
+    public String getEndTimeText() {
+        return endTimeText;
+    }
+
+    /**
+     * Sets the end time formatted for display.
+     * @param endTimeText   String - the formatted end time.
+     */
+    public void setEndTimeText(String endTimeText) {
+        this.endTimeText = endTimeText;
+        timeText = null;
+    }
+
+    /**
+     * Gets the start and end time formatted for display, "start - end". The
+     * text is built once and reused.
+     * @return  String - the formatted time span.
+     */
+    public String getTimeText() {
+        if (timeText == null) {
+            timeText = startTimeText + " - " + endTimeText;
+        }
+        return timeText;
+    }
 }
@@ -0,0 +1,141 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that represents the table model for the episode table. A new
+ * channel's episodes are loaded with a single change notification, a new
+ * list of the same channel's episodes only changes the rows that differ.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioEpisodeTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;   //Serial version.
+    /* The column names. */
+    private static final String[] COLUMNS = { "Name", "Time" };
+    /* The episodes shown, one per row. */
+    private final List<RadioEpisodeInfo> episodes =
+            new ArrayList<RadioEpisodeInfo>();
+    private long updateTime = 0;    //Time for update in milliseconds.
+
+    /**
+     * Loads a list of episodes into the table.
+     * @param episodes      List - the episodes.
+     * @param updateTime    long - the update time episodes are compared to.
+     */
+    public void setEpisodes(List<RadioEpisodeInfo> episodes,
+                            long updateTime) {
+        this.episodes.clear();
+        this.episodes.addAll(episodes);
+        this.updateTime = updateTime;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Updates the table to a new list of the same channel's episodes. Both
+     * lists are in start time order and are merged, rows are only inserted,
+     * updated or deleted where the episodes differ or where an episode has
+     * ended since the last update time.
+     * @param episodes      List - the episodes.
+     * @param updateTime    long - the update time episodes are compared to.
+     */
+    public void updateEpisodes(List<RadioEpisodeInfo> episodes,
+                               long updateTime) {
+        long oldUpdateTime = this.updateTime;
+        this.updateTime = updateTime;
+        int row = 0;
+        int i = 0;
+        while (i < episodes.size()) {
+            RadioEpisodeInfo episodeInfo = episodes.get(i);
+            if (row == this.episodes.size()) {
+                this.episodes.add(episodeInfo);
+                fireTableRowsInserted(row, row);
+                row++;
+                i++;
+                continue;
+            }
+            RadioEpisodeInfo old = this.episodes.get(row);
+            if (old == episodeInfo) {
+                long endTime = old.getEndTime();
+                if ((endTime < oldUpdateTime) != (endTime < updateTime)) {
+                    fireTableRowsUpdated(row, row);
+                }
+                row++;
+                i++;
+            } else if (old.getStartTime() == episodeInfo.getStartTime()) {
+                this.episodes.set(row, episodeInfo);
+                fireTableRowsUpdated(row, row);
+                row++;
+                i++;
+            } else if (old.getStartTime() < episodeInfo.getStartTime()) {
+                this.episodes.remove(row);
+                fireTableRowsDeleted(row, row);
+            } else {
+                this.episodes.add(row, episodeInfo);
+                fireTableRowsInserted(row, row);
+                row++;
+                i++;
+            }
+        }
+        /* Delete the rows after the last episode. */
+        int last = this.episodes.size() - 1;
+        if (row <= last) {
+            this.episodes.subList(row, last + 1).clear();
+            fireTableRowsDeleted(row, last);
+        }
+    }
+
+    /**
+     * Gets the episode on a row.
+     * @param row   int - the row.
+     * @return  RadioEpisodeInfo - the episode, null if there is no such row.
+     */
+    public RadioEpisodeInfo getEpisodeInfo(int row) {
+        if (row < 0 || row >= episodes.size()) {
+            return null;
+        }
+        return episodes.get(row);
+    }
+
+    /**
+     * Checks if the episode on a row had ended at the update time.
+     * @param row   int - the row.
+     * @return  boolean - true if the episode has ended, else false.
+     */
+    public boolean hasEpisodeEnded(int row) {
+        if (row < 0 || row >= episodes.size()) {
+            return false;
+        }
+        return episodes.get(row).getEndTime() < updateTime;
+    }
+
+    @Override
+    public int getRowCount() {
+        return episodes.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        RadioEpisodeInfo episodeInfo = episodes.get(row);
+        if (column == 0) {
+            return episodeInfo.getTitle();
+        }
+        return episodeInfo.getTimeText();
+    }
+}
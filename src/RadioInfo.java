@@ -12,7 +12,9 @@ public class RadioInfo {
     private static String xmlAddress = "http://api.sr.se/api/v2/channels";
 
 	public static void main(String[] args) {
-		
+        /* Connect to the api while the gui is being built. */
+        RadioInfoHttpCache.getDefaultTransport().warmUp(xmlAddress);
+
         SwingUtilities.invokeLater(new Runnable() {
 
             @Override
@@ -21,10 +23,36 @@ public class RadioInfo {
                 RadioInfoFrame gui = new RadioInfoFrame(title, c);
                 c.setGui(gui);
                 gui.showFrame(true);
+                loadSavedSnapshot(c);
                 c.createInfoUpdater();
             }});
 
     }
+
+    /**
+     * Reads the last update's snapshot in the background and shows it until
+     * the first update is done. An update that publishes first is kept.
+     * @param c RadioInfoController - the controller.
+     */
+    private static void loadSavedSnapshot(final RadioInfoController c) {
+        Thread loader = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                final RadioInfoSnapshot saved;
+                saved = c.getSnapshotStore().load();
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        c.publishSavedSnapshot(saved);
+                        c.presentResults();
+                    }});
+            }
+        }, "RadioInfo-snapshot");
+        loader.setDaemon(true);
+        loader.start();
+    }
 }
 
 
@@ -3,12 +3,20 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.Timer;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Class that represents the controller.
@@ -18,29 +26,70 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class RadioInfoController {
 
     private static RadioInfoController controller;      //The controller (this).
-    private RadioInfoUpdateTimer infoUpdater = null;    //The update timer.
-    private Timer timer = null;         //The timer.
-    private int timeInterval = 3600;    //Interval in seconds for timer.
-    /* A list with radio channel information. */
-    private static CopyOnWriteArrayList<RadioChannelInfo> channelInfoList;
+    private ScheduledFuture<?> infoUpdater = null;      //The update timer.
+    /* Schedules the timed updates and each channel's refresh. */
+    private RadioInfoRefreshScheduler refreshScheduler = null;
+    /* Interval in seconds for full updates. */
+    private int timeInterval =
+            Integer.getInteger("radioinfo.update.seconds", 24 * 3600);
+    /* The timer that updates the episodes playing right now. */
+    private ScheduledFuture<?> nowPlayingUpdater = null;
+    /* The last request for the episodes playing right now. */
+    private volatile Future<?> nowPlayingLoad = null;
+    /* Interval in seconds for updating the episodes playing right now. */
+    private final int nowPlayingInterval =
+            Integer.getInteger("radioinfo.nowplaying.seconds", 60);
+    /* Address to the episodes playing right now on all channels. */
+    private final String nowPlayingAddress = System.getProperty(
+            "radioinfo.nowplaying.url", "http://api.sr.se/api/v2/" +
+            "scheduledepisodes/rightnow?pagination=false");
+    /* The published radio channel information. */
+    private static final AtomicReference<RadioInfoSnapshot> snapshot =
+            new AtomicReference<RadioInfoSnapshot>(RadioInfoSnapshot.EMPTY);
 
     private RadioInfoXMLParser radioInfoXMLParser = null;   //XML parser.
-    private RadioChannelInfo selectedChannel = null;        //Selected channel.
+    /* Store for the last published snapshot. */
+    private final RadioInfoSnapshotStore snapshotStore =
+            new RadioInfoSnapshotStore();
+    /* Selected channel, also read by the schedule workers. */
+    private volatile RadioChannelInfo selectedChannel = null;
+    /* The user's favourite channels. */
+    private final RadioInfoFavourites favourites = new RadioInfoFavourites();
+    /* If updates fetch only the channel list and schedules are loaded
+     * afterwards, the selected channel's first. */
+    private final boolean isLazySchedules =
+            Boolean.getBoolean("radioinfo.lazy");
+    /* Schedules being loaded after a lazy update, by channel id. */
+    private final Map<Integer, Future<RadioChannelInfo>> scheduleLoads =
+            new ConcurrentHashMap<Integer, Future<RadioChannelInfo>>();
+    /* Channels whose schedules are warmed up after the selected channel and
+     * the favourites, a few at a time. */
+    private volatile Queue<RadioChannelInfo> warmUps =
+            new ConcurrentLinkedQueue<RadioChannelInfo>();
+    /* Amount of schedules warmed up at the same time. */
+    private final int warmUpWorkers = Math.max(1,
+            Integer.getInteger("radioinfo.warmup.workers", 2));
+    /* Time in milliseconds loaded schedules are saved after, so loads close
+     * together are saved once. */
+    private final long saveDelay = Long.getLong("radioinfo.save.delay",
+                                                10000);
+    /* If a save of the published snapshot is waiting to run. */
+    private final AtomicBoolean isSavePending = new AtomicBoolean(false);
+    /* Report of the update the schedules are loaded for. */
+    private volatile RadioInfoRefreshReport scheduleReport =
+            new RadioInfoRefreshReport();
     private RadioInfoFrame radioInfoGui = null;             //The gui.
 
     private final String xmlAddress;    //The xml address.
-    private static Date updateTimeDate; //Time date for update.
-    private static Date afterTimeDate;  //Time date after update.
-    private static Date beforeTimeDate; //Time date before update.
     private final int hoursBefore = 12; //Hours before update time.
     private final int hoursAfter = 12;  //Hours after update time.
-    /* An update worker. */
-    private static SwingWorker<Boolean, Integer> updateWorker;
-    /* Boolean for update is in progress. */
-    private static boolean isUpdating = false;
-    /* The date format. */
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat
-                                                ("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    /* Time span of the newest full update. */
+    private volatile RadioInfoTimeSpan timeSpan = createTimeSpan();
+    /* State of the full update and the worker that owns it. */
+    private final AtomicReference<UpdateState> updateState =
+            new AtomicReference<UpdateState>(UpdateState.IDLE);
+    /* If an update was asked for while another was running. */
+    private final AtomicBoolean isUpdatePending = new AtomicBoolean(false);
     /* The time format. */
     private final SimpleDateFormat timeFormat = new SimpleDateFormat
                                                 ("HH:mm:ss");
@@ -55,14 +104,6 @@ public class RadioInfoController {
         createXMLParser();
     }
 
-    /**
-     * Gets the date format.
-     * @return  SimpleDateFormat - format for date.
-     */
-    public SimpleDateFormat getDateFormat() {
-        return dateFormat;
-    }
-
     /**
      * Gets the time format.
      * @return  SimpleDateFormat - format for time.
@@ -87,77 +128,480 @@ public class RadioInfoController {
     }
 
     /**
-     * Updates all the channel and episode information.
+     * Updates all the channel and episode information. A running update is
+     * superseded, it's cancelled and its blocked requests are interrupted.
      */
-    public synchronized void runInfoUpdater() {
-        setTimeDates();
-        createChannelInfoList();
-        createUpdateWorker();
-        runUpdateWorker();
+    public void runInfoUpdater() {
+        isUpdatePending.set(false);
+        RadioInfoUpdateWorker worker = new RadioInfoUpdateWorker(controller);
+        UpdateState old = updateState.getAndSet(new UpdateState(worker,
+                RadioInfoRefreshState.FETCHING));
+        if (old.worker != null) {
+            old.worker.cancel(true);
+        }
+        startUpdateWorker(worker);
+    }
+
+    /**
+     * Asks for an update of all the channel and episode information. If an
+     * update is running, one more update is run after it, however many
+     * times this is called meanwhile.
+     */
+    public void requestInfoUpdate() {
+        UpdateState current = updateState.get();
+        if (current.state == RadioInfoRefreshState.IDLE) {
+            RadioInfoUpdateWorker worker;
+            worker = new RadioInfoUpdateWorker(controller);
+            if (updateState.compareAndSet(current, new UpdateState(worker,
+                    RadioInfoRefreshState.FETCHING))) {
+                startUpdateWorker(worker);
+                return;
+            }
+        }
+        isUpdatePending.set(true);
+        /* The running update may have finished before the mark was set. */
+        if (updateState.get().state == RadioInfoRefreshState.IDLE &&
+            isUpdatePending.compareAndSet(true, false)) {
+            requestInfoUpdate();
+        }
     }
 
     /**
-     * Creates a new update worker.
+     * Updates the current and next episode of every channel with one small
+     * request, between the full updates. The request runs on the parser's
+     * executor, unless a full update or the last request is still running.
      */
-    private void createUpdateWorker() {
-        updateWorker = new RadioInfoUpdateWorker(controller);
+    public void runNowPlayingUpdater() {
+        if (isUpdating()) {
+            return;
+        }
+        Future<?> last = nowPlayingLoad;
+        if (last != null && !last.isDone()) {
+            return;
+        }
+        nowPlayingLoad = radioInfoXMLParser.submitNowPlaying(
+                nowPlayingAddress, controller, new RadioInfoRefreshReport());
+    }
+
+    /**
+     * Publishes the episodes playing right now. The published snapshot is
+     * replaced by a patched copy.
+     * @param nowPlaying    List - channels holding their current and next
+     *                             episode.
+     */
+    public void nowPlayingLoaded(List<RadioChannelInfo> nowPlaying) {
+        long now = System.currentTimeMillis();
+        /* If an update publishes meanwhile, patch its snapshot instead. */
+        RadioInfoSnapshot published;
+        RadioInfoSnapshot patched;
+        do {
+            published = snapshot.get();
+            patched = published.withNowPlaying(nowPlaying, now);
+        } while (!snapshot.compareAndSet(published, patched));
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                presentResults();
+            }
+        });
     }
 
     /**
-     * Runs the update worker.
+     * Shows in the status text that the episodes playing right now could
+     * not be updated. The tables keep what they show.
+     * @param error Exception - why the request failed.
      */
-    private void runUpdateWorker() {
-        updateWorker.execute();
+    public void nowPlayingFailed(final Exception error) {
+        final long now = System.currentTimeMillis();
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                if (radioInfoGui != null) {
+                    radioInfoGui.showStatus("Could not update now playing " +
+                                            formatTime(now) + ". " + error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs an update worker that owns the update state.
+     * @param worker    RadioInfoUpdateWorker - the worker.
+     */
+    private void startUpdateWorker(RadioInfoUpdateWorker worker) {
+        setTimeDates();
+        worker.execute();
     }
 
     /**
      * Stops the update worker.
      */
     private void stopUpdateWorker() {
-        updateWorker.cancel(true);
+        UpdateState old = updateState.getAndSet(UpdateState.IDLE);
+        if (old.worker != null) {
+            old.worker.cancel(true);
+        }
     }
 
-    private void createChannelInfoList() {
-        channelInfoList = new CopyOnWriteArrayList<RadioChannelInfo>();
+    /**
+     * Moves an update from fetching to publishing. Only the newest update
+     * may publish.
+     * @param worker    RadioInfoUpdateWorker - the update's worker.
+     * @return  boolean - true if the update may publish, false if it has
+     *                    been superseded.
+     */
+    public boolean startPublishing(RadioInfoUpdateWorker worker) {
+        UpdateState current = updateState.get();
+        return current.worker == worker &&
+               current.state == RadioInfoRefreshState.FETCHING &&
+               updateState.compareAndSet(current, new UpdateState(worker,
+                       RadioInfoRefreshState.PUBLISHING));
     }
 
     /**
-     * Gets the time date and time date for hours before/after.
+     * Ends an update. The results are shown if it published, then a pending
+     * update is started. A failed update shows the published snapshot again
+     * instead of its fetched channels. Does nothing for a superseded
+     * update, the state was handed to the newer update when it superseded
+     * this one. Must be called on the event dispatch thread.
+     * @param worker        RadioInfoUpdateWorker - the update's worker.
+     * @param isPublished   boolean - true if the update published.
+     */
+    public void updateFinished(RadioInfoUpdateWorker worker,
+                               boolean isPublished) {
+        UpdateState current = updateState.get();
+        if (current.worker != worker) {
+            return;
+        }
+        if (isPublished) {
+            scheduleReport = worker.getReport();
+            updateDone(worker.getReport());
+            if (isLazySchedules) {
+                loadSchedules();
+            }
+            scheduleRefreshes();
+        } else {
+            /* Replace the rows shown while fetching by the published ones. */
+            presentResults();
+        }
+        /* A newer update may have been started meanwhile. */
+        updateState.compareAndSet(current, UpdateState.IDLE);
+        if (isUpdatePending.compareAndSet(true, false)) {
+            requestInfoUpdate();
+        }
+    }
+
+    /**
+     * Checks if updates fetch only the channel list, with the schedules
+     * loaded afterwards.
+     * @return  boolean - true if schedules are loaded lazily, else false.
+     */
+    public boolean isLazySchedules() {
+        return isLazySchedules;
+    }
+
+    /**
+     * Starts loading the schedules of every published channel after a lazy
+     * update. The selected channel and the favourites are loaded at once,
+     * the rest of the channels are warmed up in the background a few at a
+     * time. Loads for an earlier update are cancelled.
+     */
+    private void loadSchedules() {
+        warmUps.clear();
+        for (Future<RadioChannelInfo> load : scheduleLoads.values()) {
+            load.cancel(true);
+        }
+        scheduleLoads.clear();
+        Queue<RadioChannelInfo> queue;
+        queue = new ConcurrentLinkedQueue<RadioChannelInfo>();
+        for (RadioChannelInfo channelInfo :
+                snapshot.get().getChannelInfoList()) {
+            int priority = getFetchPriority(channelInfo);
+            if (priority < 2) {
+                loadSchedule(channelInfo, priority, null);
+            } else {
+                queue.add(channelInfo);
+            }
+        }
+        warmUps = queue;
+        for (int i = 0; i < warmUpWorkers; i++) {
+            warmUpNext(queue);
+        }
+    }
+
+    /**
+     * Loads the schedule of the next channel waiting to be warmed up. The
+     * channel after it is loaded when it is done. Channels already loaded,
+     * such as a selected one, are skipped.
+     * @param queue Queue - the channels waiting to be warmed up.
+     */
+    private void warmUpNext(final Queue<RadioChannelInfo> queue) {
+        RadioChannelInfo channelInfo;
+        while ((channelInfo = queue.poll()) != null) {
+            if (loadSchedule(channelInfo, 2, new Runnable() {
+                @Override
+                public void run() {
+                    warmUpNext(queue);
+                }
+            })) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Loads a channel's schedule, unless it's already being loaded.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @param priority      int - the priority, lowest is fetched first.
+     * @param whenDone      Runnable - run when the load is done, may be null.
+     * @return  boolean - true if the load was started, else false.
+     */
+    private boolean loadSchedule(RadioChannelInfo channelInfo, int priority,
+                                 Runnable whenDone) {
+        if (channelInfo.getId() == 0 ||
+            scheduleLoads.containsKey(channelInfo.getId())) {
+            return false;
+        }
+        scheduleLoads.put(channelInfo.getId(),
+                          radioInfoXMLParser.submitSchedule(channelInfo,
+                                  timeSpan, priority, controller,
+                                  scheduleReport, whenDone));
+        return true;
+    }
+
+    /**
+     * Loads the schedule of a channel selected for the first time since a
+     * lazy update, before the schedules warming up in the background.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     */
+    private void loadSelectedSchedule(RadioChannelInfo channelInfo) {
+        Future<RadioChannelInfo> load = scheduleLoads.get(
+                channelInfo.getId());
+        if (load == null) {
+            loadSchedule(channelInfo, getFetchPriority(channelInfo), null);
+        } else if (!load.isDone()) {
+            radioInfoXMLParser.prioritize(load);
+        }
+    }
+
+    /**
+     * Schedules the next refresh of every published channel.
+     */
+    private void scheduleRefreshes() {
+        if (refreshScheduler == null) {
+            return;
+        }
+        for (RadioChannelInfo channelInfo :
+                snapshot.get().getChannelInfoList()) {
+            refreshScheduler.channelUpdated(channelInfo);
+        }
+    }
+
+    /**
+     * Refreshes one channel's schedule on its own, with the time span moved
+     * to now. Postponed while a full update is running.
+     * @param channelId int - the channel id.
+     */
+    public void refreshChannel(int channelId) {
+        RadioChannelInfo channelInfo = snapshot.get().getChannelInfo(
+                channelId);
+        if (channelInfo == null) {
+            return;
+        }
+        if (isUpdating()) {
+            refreshScheduler.postpone(channelId);
+            return;
+        }
+        radioInfoXMLParser.submitSchedule(channelInfo, createTimeSpan(), 2,
+                                          controller, scheduleReport);
+    }
+
+    /**
+     * Publishes a channel whose schedule has been loaded after an update.
+     * The published snapshot is replaced by a patched copy and the channel's
+     * next refresh is scheduled. Does nothing if the schedule belongs to an
+     * earlier update. A channel no longer published is not refreshed again.
+     * @param channelInfo   RadioChannelInfo - the channel with its schedule.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     */
+    public void scheduleLoaded(RadioChannelInfo channelInfo,
+                               RadioInfoRefreshReport report) {
+        if (report != scheduleReport) {
+            return;
+        }
+        RadioInfoSnapshot published;
+        RadioInfoSnapshot patched;
+        do {
+            published = snapshot.get();
+            patched = published.withChannel(channelInfo);
+        } while (!snapshot.compareAndSet(published, patched));
+        RadioChannelInfo patchedInfo = patched.getChannelInfo(
+                channelInfo.getId());
+        if (refreshScheduler != null && patchedInfo == null) {
+            refreshScheduler.channelRemoved(channelInfo.getId());
+        } else if (refreshScheduler != null) {
+            refreshScheduler.channelUpdated(patchedInfo);
+        }
+        if (patched == published) {
+            return;
+        }
+        saveSnapshotLater(report);
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                presentResults();
+            }
+        });
+    }
+
+    /**
+     * Saves the published snapshot after a short delay, unless a save is
+     * already waiting. Without the timers it is saved at once.
+     * @param report    RadioInfoRefreshReport - the report a failed save is
+     *                  added to.
+     */
+    private void saveSnapshotLater(final RadioInfoRefreshReport report) {
+        if (!isSavePending.compareAndSet(false, true)) {
+            return;
+        }
+        Runnable save = new Runnable() {
+            @Override
+            public void run() {
+                isSavePending.set(false);
+                saveSnapshot(report);
+            }
+        };
+        RadioInfoRefreshScheduler scheduler = refreshScheduler;
+        if (scheduler == null) {
+            save.run();
+        } else {
+            scheduler.schedule(save, saveDelay);
+        }
+    }
+
+    /**
+     * Gets the state of the full update.
+     * @return  RadioInfoRefreshState - the state.
+     */
+    public RadioInfoRefreshState getRefreshState() {
+        return updateState.get().state;
+    }
+
+    /**
+     * Publishes the channels from an update as a new snapshot. Replaces the
+     * old snapshot in one step.
+     * @param channels  List - the channels in display order.
+     */
+    public void publishChannels(List<RadioChannelInfo> channels) {
+        /* Keep the objects of unchanged channels and episodes. */
+        channels = snapshot.get().reuseUnchanged(channels);
+        snapshot.set(new RadioInfoSnapshot(channels,
+                                           timeSpan.getUpdateTime()));
+    }
+
+    /**
+     * Publishes a snapshot saved by an earlier run, unless an update has
+     * already published one.
+     * @param saved RadioInfoSnapshot - the saved snapshot, may be null.
+     */
+    public void publishSavedSnapshot(RadioInfoSnapshot saved) {
+        if (saved != null) {
+            snapshot.compareAndSet(RadioInfoSnapshot.EMPTY, saved);
+        }
+    }
+
+    /**
+     * Saves the published snapshot so the next start can show it at once.
+     * @throws IOException
+     */
+    public void saveSnapshot() throws IOException {
+        snapshotStore.save(snapshot.get());
+    }
+
+    /**
+     * Saves the published snapshot, a failed save is added to a report and
+     * shown in the status text. A failed save only means the next start
+     * shows empty tables until its first update.
+     * @param report    RadioInfoRefreshReport - the report of the update
+     *                  that is saved.
+     */
+    public void saveSnapshot(RadioInfoRefreshReport report) {
+        try {
+            saveSnapshot();
+        } catch (IOException e) {
+            final String error = "Could not save snapshot " +
+                    formatTime(System.currentTimeMillis()) + ". " + e;
+            report.addError(error);
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if (radioInfoGui != null) {
+                        radioInfoGui.showStatus(error);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the store for the last published snapshot.
+     * @return  RadioInfoSnapshotStore - the snapshot store.
+     */
+    public RadioInfoSnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+
+    /**
+     * Gets the published snapshot.
+     * @return  RadioInfoSnapshot - the snapshot.
+     */
+    public RadioInfoSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Moves the time span of full updates to now.
      */
     private void setTimeDates() {
-        Calendar updateTimeCalendar = Calendar.getInstance();
-        updateTimeDate = updateTimeCalendar.getTime();
+        timeSpan = createTimeSpan();
+    }
 
-        updateTimeCalendar.add(Calendar.HOUR_OF_DAY, -hoursBefore);
-        beforeTimeDate = updateTimeCalendar.getTime();
+    /**
+     * Creates a time span of hours before and after now.
+     * @return  RadioInfoTimeSpan - the time span.
+     */
+    public RadioInfoTimeSpan createTimeSpan() {
+        return new RadioInfoTimeSpan(System.currentTimeMillis(), hoursBefore,
+                                     hoursAfter);
+    }
 
-        updateTimeCalendar.add(Calendar.HOUR_OF_DAY, hoursAfter + hoursBefore);
-        afterTimeDate = updateTimeCalendar.getTime();
+    /**
+     * Gets the time span of the newest full update.
+     * @return  RadioInfoTimeSpan - the time span.
+     */
+    public RadioInfoTimeSpan getTimeSpan() {
+        return timeSpan;
     }
 
     /**
      * Checks if there is an update running.
      * @return  boolean - true if update is running, else false;
      */
-    public synchronized boolean isUpdating() {
-        return isUpdating;
+    public boolean isUpdating() {
+        return updateState.get().state != RadioInfoRefreshState.IDLE;
     }
 
     /**
-     * Sets if there is an update running.
+     * Sets if there is an update running. The state of an update worker is
+     * left to the worker, so this only changes a state no worker owns.
      * @param updating  boolean - true if update is running, else false;
      */
-    public synchronized void setIsUpdating(boolean updating) {
-        isUpdating = updating;
-        /* If a gui has been set. */
-        if (guiIsSet()) {
-            if (updating) {
-                /* Unable updating. */
-                radioInfoGui.enableUpdate(false);
-            } else {
-                /* Enable updating. */
-                radioInfoGui.enableUpdate(true);
-            }
+    public void setIsUpdating(boolean updating) {
+        UpdateState current = updateState.get();
+        if (current.worker == null) {
+            updateState.compareAndSet(current, updating ?
+                    new UpdateState(null, RadioInfoRefreshState.FETCHING) :
+                    UpdateState.IDLE);
         }
     }
 
@@ -185,45 +629,101 @@ public class RadioInfoController {
         radioInfoGui.updateProgress(value);
     }
 
+    /**
+     * Shows a channel from a running update in the channel table before the
+     * update is published.
+     * @param index         int - the channel's place in original order.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     */
+    public void showFetchedChannel(int index, RadioChannelInfo channelInfo) {
+        radioInfoGui.showFetchedChannel(index, channelInfo);
+        /* The selected channel's episodes are shown at once. */
+        if (selectedChannel != null &&
+            isSameChannel(selectedChannel, channelInfo)) {
+            setSelectedChannel(channelInfo);
+            radioInfoGui.updateEpisodes(channelInfo.getEpisodesInfoList(),
+                                        timeSpan.getUpdateTime());
+        }
+    }
+
+    /**
+     * Gets the priority a channel's schedule is fetched with. The selected
+     * channel comes first, then the favourites, then the rest.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @return  int - the priority, lowest is fetched first.
+     */
+    public int getFetchPriority(RadioChannelInfo channelInfo) {
+        RadioChannelInfo selected = selectedChannel;
+        if (selected != null && isSameChannel(selected, channelInfo)) {
+            return 0;
+        }
+        if (favourites.isFavourite(channelInfo.getId())) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Checks if a channel is one of the user's favourites.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @return  boolean - true if it is a favourite, else false.
+     */
+    public boolean isFavouriteChannel(RadioChannelInfo channelInfo) {
+        return favourites.isFavourite(channelInfo.getId());
+    }
+
+    /**
+     * Checks if two channels are the same channel, by id if known, else by
+     * name.
+     * @param a RadioChannelInfo - a channel.
+     * @param b RadioChannelInfo - another channel.
+     * @return  boolean - true if it is the same channel, else false.
+     */
+    private boolean isSameChannel(RadioChannelInfo a, RadioChannelInfo b) {
+        if (a.getId() != 0 || b.getId() != 0) {
+            return a.getId() == b.getId();
+        }
+        return a.getName() != null && a.getName().equals(b.getName());
+    }
+
     /**
      * Gets a RadioChannelInfo model from channel-info list.
      * @param channelName   String - the channel name.
      * @return  RadioChannelInfo - the found channel, else null.
      */
     public RadioChannelInfo getChannelInfo(String channelName) {
-        for (RadioChannelInfo channelInfo : channelInfoList) {
-            if (channelInfo.getName() == channelName) {
-                return channelInfo;
-            }
-        }
-        return null;
+        return snapshot.get().getChannelInfo(channelName);
     }
 
     /**
-     * Gets the list of RadioChannelInfo models.
-     * @return  CopyOnWriteArrayList - the list.
+     * Gets a RadioChannelInfo model by channel id.
+     * @param channelId int - the channel id.
+     * @return  RadioChannelInfo - the found channel, else null.
      */
-    public CopyOnWriteArrayList<RadioChannelInfo> getChannelInfoList() {
-        return channelInfoList;
+    public RadioChannelInfo getChannelInfo(int channelId) {
+        return snapshot.get().getChannelInfo(channelId);
     }
 
     /**
-     * Gets episode-info by given name from the selected channel.
-     * @param episodeName   String - the episode name.
-     * @return  RadioEpisodeInfo - the episode's information.
+     * Gets the list of RadioChannelInfo models.
+     * @return  List - the read only list.
      */
-    public RadioEpisodeInfo getEpisodeInfo(String episodeName) {
-        return selectedChannel.getEpisodeInfo(episodeName);
+    public List<RadioChannelInfo> getChannelInfoList() {
+        return snapshot.get().getChannelInfoList();
     }
 
     /**
-     * Creates a new timer for updating.
+     * Creates the scheduler for the timed updates. Full updates run with a
+     * long interval, between them each channel is refreshed on its own.
      */
     public void createInfoUpdater() {
-        timer = new Timer();
+        refreshScheduler = new RadioInfoRefreshScheduler(controller);
         setTimeInterval();
-        infoUpdater = new RadioInfoUpdateTimer(controller);
-        timer.scheduleAtFixedRate(infoUpdater, 0, timeInterval);
+        infoUpdater = refreshScheduler.schedule(
+                new RadioInfoUpdateTimer(controller), 0, timeInterval);
+        nowPlayingUpdater = refreshScheduler.schedule(
+                new RadioInfoNowPlayingTimer(controller),
+                nowPlayingInterval * 1000L, nowPlayingInterval * 1000L);
     }
 
     /**
@@ -249,22 +749,6 @@ public class RadioInfoController {
         return selectedChannel;
     }
 
-    /**
-     * Checks if a given episode has ended by checking last time updated.
-     * @param episodeName   String - the episode's title.
-     * @return  boolean - true if the episode has ended, else false.
-     */
-    public boolean hasEpisodeEnded(String episodeName) {
-        try {
-            RadioEpisodeInfo episodeInfo = getEpisodeInfo(episodeName);
-            Date endTime = dateFormat.parse(episodeInfo.getEndTimeUTC());
-            return updateTimeDate.after(endTime);
-        } catch (ParseException e) {
-            guiShowMessage(e.toString());
-            return false;
-        }
-    }
-
     /**
      * Checks if a channel has been selected.
      * @return  boolean - true if a channel has been selected, else false.
@@ -282,41 +766,53 @@ public class RadioInfoController {
     }
 
     /**
-     * Tells the gui to show the results from the last update.
+     * Tells the gui to show the results and statistics from the last update.
+     * @param report    RadioInfoRefreshReport - the update's statistics.
      */
-    public void updateDone() {
+    public void updateDone(RadioInfoRefreshReport report) {
         presentResults();
+        radioInfoGui.showStatus("Updated " + formatTime(System.
+                                currentTimeMillis()) + ". " + report,
+                                report.getErrors());
     }
 
     /**
      * Present results by showing information in channel and episode tables.
      */
     public void presentResults() {
-        radioInfoGui.resetChannelTable();
-        /* For each channel, add the channel's information to channel table. */
-        for (RadioChannelInfo channelInfo : channelInfoList) {
-            radioInfoGui.addChannelToTable(channelInfo.getName(),
-                                           channelInfo.getChannelType());
-            /* If the channel is selected, add channel's episodes to the
-             * episode table.
-             */
-            if (selectedChannel != null &&
-                    (selectedChannel.getName() == channelInfo.getName())) {
-                CopyOnWriteArrayList episodesInfoList;
-                episodesInfoList = channelInfo.getEpisodesInfoList();
-                /* For each episode, add the episode's information to the
-                 * episode table.
-                 */
-                for (int i = 0; i < episodesInfoList.size(); i++) {
-                    RadioEpisodeInfo episodeInfo = (RadioEpisodeInfo)
-                                                   episodesInfoList.get(i);
-
-                    radioInfoGui.addEpisodeToTable(episodeInfo.getTitle(),
-                                                   getStartTime(episodeInfo),
-                                                   getEndTime(episodeInfo));
-                }
+        RadioInfoSnapshot published = snapshot.get();
+        /* If a channel is selected, keep the selection on the updated
+         * channel.
+         */
+        if (selectedChannel != null) {
+            RadioChannelInfo channelInfo = findChannel(published,
+                                                       selectedChannel);
+            if (channelInfo != null) {
+                setSelectedChannel(channelInfo);
             }
         }
+        /* Update only the changed rows of the tables. */
+        radioInfoGui.showChannels(published.getChannelInfoList());
+        if (selectedChannel != null) {
+            radioInfoGui.updateEpisodes(selectedChannel.getEpisodesInfoList(),
+                                        published.getUpdateTime());
+            radioInfoGui.selectChannel(selectedChannel);
+        }
+    }
+
+    /**
+     * Finds the channel in a snapshot that is the same channel as a given
+     * one, by id if known, else by name.
+     * @param published     RadioInfoSnapshot - the snapshot to search.
+     * @param channelInfo   RadioChannelInfo - the channel to find.
+     * @return  RadioChannelInfo - the channel in the snapshot, else null.
+     */
+    private RadioChannelInfo findChannel(RadioInfoSnapshot published,
+                                         RadioChannelInfo channelInfo) {
+        if (channelInfo.getId() != 0) {
+            return published.getChannelInfo(channelInfo.getId());
+        }
+        return published.getChannelInfo(channelInfo.getName());
     }
 
     /**
@@ -328,22 +824,27 @@ public class RadioInfoController {
     }
 
     /**
-     * Checks if a start and end time is inside the before and after time span.
-     * @param startTimeUTC  String - the start time.
-     * @param endTimeUTC    String - the end time.
-     * @return  boolean - true if the times are inside before and after time
-     *                    span,else false.
+     * Parses a time in date format to milliseconds since epoch.
+     * @param timeUTC   String - the time in date format.
+     * @return  long - the time in milliseconds.
+     * @throws ParseException
      */
-    public boolean checkTimeDate(String startTimeUTC, String endTimeUTC) {
+    public long parseTime(String timeUTC) throws ParseException {
         try {
-            Date start = dateFormat.parse(startTimeUTC);
-            Date end = dateFormat.parse(endTimeUTC);
-            boolean isAfter = end.after(beforeTimeDate);
-            boolean isBefore = start.before(afterTimeDate);
-            return (isAfter && isBefore);
-        } catch (ParseException e) {
-            guiShowMessage(e.toString());
-            return false;
+            return RadioInfoTimeDecoder.decode(timeUTC);
+        } catch (IllegalArgumentException e) {
+            throw new ParseException(e.getMessage(), 0);
+        }
+    }
+
+    /**
+     * Formats a time in milliseconds since epoch with the time format.
+     * @param time  long - the time in milliseconds.
+     * @return  String - the formatted time.
+     */
+    public String formatTime(long time) {
+        synchronized (timeFormat) {
+            return timeFormat.format(new Date(time));
         }
     }
 
@@ -353,28 +854,16 @@ public class RadioInfoController {
      * @return  String - the start time.
      */
     public String getStartTime(RadioEpisodeInfo episodeInfo) {
-        try {
-            return timeFormat.format(dateFormat.parse(episodeInfo.
-                                                      getStartTimeUTC()));
-        } catch (ParseException e) {
-            radioInfoGui.showMessage(e.toString());
-            return "";
-        }
+        return episodeInfo.getStartTimeText();
     }
 
     /**
      * Gets the end date time format from episode.
      * @param episodeInfo RadioEpisodeInfo - the episode.
-     * @return  String - the start time.
+     * @return  String - the end time.
      */
     private String getEndTime(RadioEpisodeInfo episodeInfo) {
-        try {
-            return timeFormat.format(dateFormat.parse(episodeInfo.
-                                                      getEndTimeUTC()));
-        } catch (ParseException e) {
-            radioInfoGui.showMessage(e.toString());
-            return "";
-        }
+        return episodeInfo.getEndTimeText();
     }
 
     /**
@@ -384,10 +873,14 @@ public class RadioInfoController {
 
         public void actionPerformed(ActionEvent event) {
             if (infoUpdater != null) {
-                infoUpdater.cancel();
+                infoUpdater.cancel(false);
             }
-            if (timer != null) {
-                timer.cancel();
+            if (nowPlayingUpdater != null) {
+                nowPlayingUpdater.cancel(false);
+            }
+            stopUpdateWorker();
+            if (refreshScheduler != null) {
+                refreshScheduler.stop();
             }
             radioInfoGui.quitOption();
         }
@@ -403,6 +896,20 @@ public class RadioInfoController {
         }
     }
 
+    /**
+     * Action listener for the favourite menu item of the channel list.
+     */
+    class FavouriteItemListener implements ActionListener {
+
+        public void actionPerformed(ActionEvent event) {
+            if (selectedChannel != null) {
+                boolean isFavourite = ((AbstractButton) event.getSource()).
+                                      isSelected();
+                favourites.setFavourite(selectedChannel.getId(), isFavourite);
+            }
+        }
+    }
+
     /**
      * Action listener for the channel list.
      */
@@ -413,27 +920,27 @@ public class RadioInfoController {
             if (radioInfoGui.getChannelRowCount() > 0) {
                     /* If channel selected. */
                 if (le.getValueIsAdjusting() == false) {
-                    radioInfoGui.resetEpisodeTable();
                     int row = radioInfoGui.getSelectedChannelRow();
-                    int col = 0;
-                    String selectedName = radioInfoGui.getChannelName(row, col);
+                    RadioChannelInfo channelInfo;
+                    channelInfo = radioInfoGui.getChannelInfo(row);
+                    if (channelInfo == null) {
+                        return;
+                    }
+                    long updateTime = snapshot.get().getUpdateTime();
+                    /* If the same channel was selected again. */
+                    if (channelInfo == selectedChannel) {
+                        radioInfoGui.updateEpisodes(
+                                channelInfo.getEpisodesInfoList(), updateTime);
+                        return;
+                    }
                     /* Set selected channel. */
-                    setSelectedChannel(getChannelInfo(selectedName));
-                    if (hasSelectedChannel()) {
-                        CopyOnWriteArrayList episodesInfoList;
-                        episodesInfoList = getSelectedChannel().
-                                getEpisodesInfoList();
-                        /* Add channel episodes to episode table. */
-                        for (int i = 0; i < episodesInfoList.size(); i++) {
-                            RadioEpisodeInfo episodeInfo;
-                            episodeInfo = (RadioEpisodeInfo)
-                                          episodesInfoList.get(i);
-                            String title = episodeInfo.getTitle();
-                            String start = getStartTime(episodeInfo);
-                            String end = getEndTime(episodeInfo);
-                            radioInfoGui.addEpisodeToTable(title, start, end);
-                        }
+                    setSelectedChannel(channelInfo);
+                    if (isLazySchedules) {
+                        loadSelectedSchedule(channelInfo);
                     }
+                    /* Load channel episodes into episode table. */
+                    radioInfoGui.showEpisodes(channelInfo.getEpisodesInfoList(),
+                                              updateTime);
                 }
             }
         }
@@ -451,11 +958,12 @@ public class RadioInfoController {
                 /* If episode selected. */
                 if (le.getValueIsAdjusting() == true) {
                     int row = radioInfoGui.getSelectedEpisodeRow();
-                    int col = 0;
-                    String episodeName = radioInfoGui.getEpisodeName(row, col);
 
                     RadioEpisodeInfo episodeInfo;
-                    episodeInfo = getEpisodeInfo(episodeName);
+                    episodeInfo = radioInfoGui.getEpisodeInfo(row);
+                    if (episodeInfo == null) {
+                        return;
+                    }
 
                     String title = episodeInfo.getTitle();
                     String description = episodeInfo.getDescription();
@@ -470,4 +978,27 @@ public class RadioInfoController {
             }
         }
     }
+
+    /**
+     * The state of the full update and the worker that owns it. They are
+     * kept in one reference so they always change together.
+     */
+    private static class UpdateState {
+        /* No update is running. */
+        private static final UpdateState IDLE = new UpdateState(null,
+                RadioInfoRefreshState.IDLE);
+        private final RadioInfoUpdateWorker worker;     //Owner, or null.
+        private final RadioInfoRefreshState state;      //The state.
+
+        /**
+         * Constructor for an update state.
+         * @param worker    RadioInfoUpdateWorker - the owner, may be null.
+         * @param state     RadioInfoRefreshState - the state.
+         */
+        private UpdateState(RadioInfoUpdateWorker worker,
+                            RadioInfoRefreshState state) {
+            this.worker = worker;
+            this.state = state;
+        }
+    }
 }
@@ -0,0 +1,60 @@
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Class that represents a stream that counts the bytes read through it.
+ * Used to count a response body as it was sent, before it is decompressed.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoCountingInputStream extends FilterInputStream {
+
+    private volatile long count = 0;    //Bytes read so far.
+
+    /**
+     * Constructor for the stream.
+     * @param in    InputStream - the stream to count.
+     */
+    public RadioInfoCountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = in.read();
+        if (read != -1) {
+            count++;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Gets the amount of bytes read so far.
+     * @return  long - the amount of bytes.
+     */
+    public long getCount() {
+        return count;
+    }
+}
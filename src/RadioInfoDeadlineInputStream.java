@@ -0,0 +1,142 @@
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that represents a response body that must be read before a
+ * deadline. A timeout on each read does not stop a server that keeps
+ * sending slowly, so when the deadline passes the connection is closed,
+ * which wakes a blocked read, and the read fails with a timeout.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoDeadlineInputStream extends FilterInputStream {
+
+    /* Closes the connections whose deadline has passed. */
+    private static ScheduledThreadPoolExecutor timer = null;
+    private final long timeout;     //Time to read the body in milliseconds.
+    private final ScheduledFuture<?> abort;     //Closes the connection.
+    private volatile boolean isTimedOut = false;    //If the deadline passed.
+
+    /**
+     * Constructor for the stream.
+     * @param in            InputStream - the body.
+     * @param timeout       long - time in milliseconds the body must be
+     *                             read within.
+     * @param connection    Closeable - closes the connection the body is
+     *                                  read from.
+     */
+    public RadioInfoDeadlineInputStream(InputStream in, long timeout,
+                                        final Closeable connection) {
+        super(in);
+        this.timeout = timeout;
+        abort = getTimer().schedule(new Runnable() {
+            @Override
+            public void run() {
+                isTimedOut = true;
+                try {
+                    connection.close();
+                } catch (IOException e) {
+                    /* The read fails on the timeout anyway. */
+                }
+            }
+        }, Math.max(0, timeout), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the shared timer, creates it the first time. The thread is a
+     * daemon so it never keeps the program alive.
+     * @return  ScheduledThreadPoolExecutor - the timer.
+     */
+    private static synchronized ScheduledThreadPoolExecutor getTimer() {
+        if (timer == null) {
+            timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "RadioInfo-deadline");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            timer.setRemoveOnCancelPolicy(true);
+        }
+        return timer;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkDeadline();
+        try {
+            int read = in.read();
+            if (read == -1) {
+                abort.cancel(false);
+            }
+            return read;
+        } catch (IOException e) {
+            throw timedOut(e);
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkDeadline();
+        try {
+            int read = in.read(b, off, len);
+            if (read == -1) {
+                abort.cancel(false);
+            }
+            return read;
+        } catch (IOException e) {
+            throw timedOut(e);
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        checkDeadline();
+        try {
+            return in.skip(n);
+        } catch (IOException e) {
+            throw timedOut(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        abort.cancel(false);
+        in.close();
+    }
+
+    /**
+     * Throws a timeout if the deadline has passed.
+     * @throws SocketTimeoutException
+     */
+    private void checkDeadline() throws SocketTimeoutException {
+        if (isTimedOut) {
+            throw new SocketTimeoutException("Body not read within " +
+                                             timeout + " ms");
+        }
+    }
+
+    /**
+     * Gives the error a read failed with, or a timeout if it failed since
+     * the deadline passed.
+     * @param error IOException - the error the read failed with.
+     * @return  IOException - the error to throw.
+     */
+    private IOException timedOut(IOException error) {
+        if (!isTimedOut) {
+            return error;
+        }
+        SocketTimeoutException timedOut = new SocketTimeoutException(
+                "Body not read within " + timeout + " ms");
+        timedOut.initCause(error);
+        return timedOut;
+    }
+}
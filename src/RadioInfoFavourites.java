@@ -0,0 +1,84 @@
+import java.util.HashSet;
+import java.util.Set;
+import java.util.prefs.Preferences;
+
+/**
+ * Class that represents the user's favourite channels. The channel ids are
+ * kept in the user's preferences, so favourites are remembered from one
+ * start of the program to the next.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoFavourites {
+
+    private static final String KEY = "favourites";     //Preferences key.
+    private final Preferences preferences;  //Where the favourites are kept.
+    private final Set<Integer> channelIds = new HashSet<Integer>();
+
+    /**
+     * Constructor for the favourites. The favourites are kept in the user
+     * preferences node "radioinfo".
+     */
+    public RadioInfoFavourites() {
+        this(Preferences.userRoot().node("radioinfo"));
+    }
+
+    /**
+     * Constructor for the favourites. Takes the preferences node the
+     * favourites are kept in as parameter.
+     * @param preferences   Preferences - the preferences node.
+     */
+    public RadioInfoFavourites(Preferences preferences) {
+        this.preferences = preferences;
+        for (String id : preferences.get(KEY, "").split(",")) {
+            try {
+                channelIds.add(Integer.parseInt(id.trim()));
+            } catch (NumberFormatException e) {
+                /* Skip what is not a channel id. */
+            }
+        }
+    }
+
+    /**
+     * Checks if a channel is a favourite.
+     * @param channelId int - the channel id.
+     * @return  boolean - true if the channel is a favourite, else false.
+     */
+    public synchronized boolean isFavourite(int channelId) {
+        return channelIds.contains(channelId);
+    }
+
+    /**
+     * Sets a channel to be a favourite or not and saves the favourites.
+     * Channels without an id can not be favourites.
+     * @param channelId     int - the channel id.
+     * @param isFavourite   boolean - true to make it a favourite, else false.
+     */
+    public synchronized void setFavourite(int channelId,
+                                          boolean isFavourite) {
+        if (channelId == 0) {
+            return;
+        }
+        if (isFavourite) {
+            channelIds.add(channelId);
+        } else {
+            channelIds.remove(channelId);
+        }
+        StringBuilder text = new StringBuilder();
+        for (int id : channelIds) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(id);
+        }
+        preferences.put(KEY, text.toString());
+    }
+
+    /**
+     * Gets the favourite channels' ids.
+     * @return  Set - copy of the channel ids.
+     */
+    public synchronized Set<Integer> getChannelIds() {
+        return new HashSet<Integer>(channelIds);
+    }
+}
@@ -1,32 +1,36 @@
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.event.WindowEvent;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import javax.imageio.ImageIO;
+import java.util.Collections;
+import java.util.List;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 
 /**
  * Class that represents the view. Uses tables and desktop frames to show
- * information. Uses menus to update and quit.
+ * information. Uses menus to update and quit, and a popup menu on the
+ * channel table to pick favourite channels.
  * @author Johan Ahlqvist
  * 2017-12-28
  */
 public class RadioInfoFrame extends JFrame {
 
 	private JFrame radioInfoFrame;              //The view.
-	private DefaultTableModel channelTable;     //Table for channels.
+	private RadioChannelTableModel channelTable;    //Table for channels.
     private JTable channelJTable;               //JTable for channels table.
-    private DefaultTableModel episodeTable;     //Table for episodes.
+    private RadioEpisodeTableModel episodeTable;    //Table for episodes.
     private JTable episodeJTable;               //JTable for episodes table.
     private JDesktopPane desktopPane;           //Desktop for internal frames.
     private JProgressBar updateProgress;        //Progress bar.
     private JInternalFrame updateFrame;         //Update frame showing progress.
     private JMenuItem updateItem;               //Menu item for updating.
     private JMenuItem quitItem;                 //Menu item for quiting.
+    private JPopupMenu channelPopup;            //Popup menu for channels.
+    private JCheckBoxMenuItem favouriteItem;    //Menu item for favourites.
+    private JLabel statusLabel;                 //Status of the last update.
+    /* Loads and caches episode images. */
+    private final RadioInfoImageLoader imageLoader = new RadioInfoImageLoader();
 
     /**
      * Constructor for the frame. Takes frame name and the controller as
@@ -108,9 +112,7 @@ public class RadioInfoFrame extends JFrame {
      * @return  JTable - the table.
      */
     public JTable buildChannelsTable(final RadioInfoController c) {
-	    channelTable = new DefaultTableModel();
-	    channelTable.addColumn("Name");
-	    channelTable.addColumn("Type");
+	    channelTable = new RadioChannelTableModel();
 
         channelJTable = new JTable(channelTable) {
             @Override
@@ -125,9 +127,46 @@ public class RadioInfoFrame extends JFrame {
         channelJTable.getSelectionModel().addListSelectionListener(c.
                                           new ChannelListListener());
 
+        /* Add a popup menu for favourites. */
+        channelPopup = new JPopupMenu();
+        favouriteItem = new JCheckBoxMenuItem("Favourite");
+        favouriteItem.addActionListener(c.new FavouriteItemListener());
+        channelPopup.add(favouriteItem);
+        channelJTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                showChannelPopup(e, c);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                showChannelPopup(e, c);
+            }
+        });
+
         return channelJTable;
     }
 
+    /**
+     * Selects the channel under the mouse and shows the channel popup menu,
+     * if the mouse event is a popup trigger.
+     * @param e MouseEvent - the mouse event.
+     * @param c RadioInfoController - the controller.
+     */
+    private void showChannelPopup(MouseEvent e, RadioInfoController c) {
+        if (!e.isPopupTrigger()) {
+            return;
+        }
+        int row = channelJTable.rowAtPoint(e.getPoint());
+        RadioChannelInfo channelInfo = channelTable.getChannelInfo(row);
+        if (channelInfo == null) {
+            return;
+        }
+        channelJTable.setRowSelectionInterval(row, row);
+        favouriteItem.setSelected(c.isFavouriteChannel(channelInfo));
+        channelPopup.show(channelJTable, e.getX(), e.getY());
+    }
+
     /**
      * Builds the panel for viewing episodes.
      * @param c RadioInfoController - the controller.
@@ -155,9 +194,7 @@ public class RadioInfoFrame extends JFrame {
      * @return  JTable - the table.
      */
     public JTable buildEpisodesTable(final RadioInfoController c) {
-        episodeTable = new DefaultTableModel();
-        episodeTable.addColumn("Name");
-        episodeTable.addColumn("Time");
+        episodeTable = new RadioEpisodeTableModel();
 
         episodeJTable = new JTable(episodeTable) {
             @Override
@@ -175,8 +212,7 @@ public class RadioInfoFrame extends JFrame {
             public Component prepareRenderer(TableCellRenderer r, int row,
                                              int column) {
                 Component comp = super.prepareRenderer(r, row, column);
-                if (c.hasEpisodeEnded(episodeTable.getValueAt(row, 0).
-                                      toString())) {
+                if (episodeTable.hasEpisodeEnded(row)) {
                     comp.setForeground(Color.gray);
                 } else {
                     comp.setForeground(Color.black);
@@ -205,6 +241,8 @@ public class RadioInfoFrame extends JFrame {
         desktopPane.setMinimumSize(new Dimension(200, 200));
         desktopPane.setVisible(true);
         panel.add(desktopPane);
+        statusLabel = new JLabel(" ");
+        panel.add(statusLabel, BorderLayout.SOUTH);
 
         return panel;
     }
@@ -225,20 +263,48 @@ public class RadioInfoFrame extends JFrame {
         JOptionPane.showMessageDialog(radioInfoFrame, message);
     }
 
+    /**
+     * Shows a status text below the desktop.
+     * @param status    String - the status text.
+     */
+    public void showStatus(String status) {
+        statusLabel.setText(status);
+    }
+
+    /**
+     * Shows a status text below the desktop, with errors that did not stop
+     * the update listed in the status tooltip.
+     * @param status    String - the status text.
+     * @param errors    List - the errors, may be empty.
+     */
+    public void showStatus(String status, List<String> errors) {
+        showStatus(status);
+        if (errors.isEmpty()) {
+            statusLabel.setToolTipText(null);
+            return;
+        }
+        StringBuilder text = new StringBuilder("<html>");
+        for (String error : errors) {
+            text.append(error.replace("&", "&amp;").replace("<", "&lt;"));
+            text.append("<br>");
+        }
+        statusLabel.setToolTipText(text.append("</html>").toString());
+    }
+
     /**
      * Resets the channel table.
      */
 	public void resetChannelTable() {
-        channelTable.setRowCount(0);
-        channelTable.fireTableDataChanged();
+        List<RadioChannelInfo> noChannels = Collections.emptyList();
+        channelTable.setChannels(noChannels);
     }
 
     /**
      * Resets the episode table.
      */
 	public void resetEpisodeTable() {
-        episodeTable.setRowCount(0);
-        episodeTable.fireTableDataChanged();
+        List<RadioEpisodeInfo> noEpisodes = Collections.emptyList();
+        episodeTable.setEpisodes(noEpisodes, 0);
     }
 
     /**
@@ -275,6 +341,10 @@ public class RadioInfoFrame extends JFrame {
      * @param totalValue    int - the highest value for progress bar.
      */
     public void createUpdateFrame(int totalValue) {
+        /* Remove the frame of a superseded update. */
+        if (updateFrame != null) {
+            updateFrame.dispose();
+        }
         updateFrame = new JInternalFrame("Updating lists...", false, false,
                                          false, false);
 
@@ -334,24 +404,13 @@ public class RadioInfoFrame extends JFrame {
         infoPanel.add(infoScroll);
         episodeFrame.add(infoPanel, BorderLayout.NORTH);
 
-        /* Set image if it exist. */
+        /* Set image if it exist, it is loaded in the background. */
         if (imageURLstring != null) {
-            URL imageURL;
-            try {
-                imageURL = new URL(imageURLstring);
-                BufferedImage image = ImageIO.read(imageURL);
-                int imageWidth = image.getWidth()/2;
-                int imageHeight = image.getHeight()/2;
-                JLabel imageLabel = new JLabel(new ImageIcon(image.
-                                    getScaledInstance(imageWidth, imageHeight,
-                                    Image.SCALE_DEFAULT)));
-                JScrollPane imageScrollPane = new JScrollPane(imageLabel);
-                episodeFrame.add(imageScrollPane, BorderLayout.CENTER);
-            } catch (MalformedURLException e) {
-                showMessage(e.toString());
-            } catch (IOException e) {
-                showMessage(e.toString());
-            }
+            JLabel imageLabel = new JLabel();
+            imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            JScrollPane imageScrollPane = new JScrollPane(imageLabel);
+            episodeFrame.add(imageScrollPane, BorderLayout.CENTER);
+            imageLoader.loadImage(imageURLstring, imageLabel);
         }
         int HEIGHT = 300;
         int WIDTH = 300;
@@ -400,23 +459,72 @@ public class RadioInfoFrame extends JFrame {
     }
 
     /**
-     * Adds an channel to the channel table.
-     * @param title         String - the channel's title.
-     * @param channelType   String - the channel's type.
+     * Shows a list of channels in the channel table.
+     * @param channels  List - the channels.
+     */
+    public void showChannels(List<RadioChannelInfo> channels) {
+        channelTable.setChannels(channels);
+    }
+
+    /**
+     * Shows a channel in the channel table, in its place in original order.
+     * A row with the same channel is replaced.
+     * @param index         int - the channel's place in original order.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     */
+    public void showFetchedChannel(int index, RadioChannelInfo channelInfo) {
+        channelTable.putChannel(index, channelInfo);
+    }
+
+    /**
+     * Shows a list of episodes in the episode table.
+     * @param episodes      List - the episodes.
+     * @param updateTime    long - the update time episodes are compared to.
+     */
+    public void showEpisodes(List<RadioEpisodeInfo> episodes,
+                             long updateTime) {
+        episodeTable.setEpisodes(episodes, updateTime);
+    }
+
+    /**
+     * Updates the episode table to a new list of the shown channel's
+     * episodes. Only changed rows are updated, so the selection and scroll
+     * position are kept.
+     * @param episodes      List - the episodes.
+     * @param updateTime    long - the update time episodes are compared to.
+     */
+    public void updateEpisodes(List<RadioEpisodeInfo> episodes,
+                               long updateTime) {
+        episodeTable.updateEpisodes(episodes, updateTime);
+    }
+
+    /**
+     * Selects a channel in the channel table, unless it's already selected.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     */
+    public void selectChannel(RadioChannelInfo channelInfo) {
+        int row = channelTable.getRow(channelInfo);
+        if (row >= 0 && row != channelJTable.getSelectedRow()) {
+            channelJTable.setRowSelectionInterval(row, row);
+        }
+    }
+
+    /**
+     * Gets the channel on a row in the channel table.
+     * @param row   int - the table row.
+     * @return  RadioChannelInfo - the channel, else null.
      */
-    public void addChannelToTable(String title, String channelType) {
-        channelTable.addRow(new Object[]{ title, channelType});
+    public RadioChannelInfo getChannelInfo(int row) {
+        return channelTable.getChannelInfo(row);
     }
 
     /**
-     * Adds an episode to the episode table.
-     * @param title     String - the episode's title.
-     * @param startTime String - the starting time.
-     * @param endTime   String - the ending time.
+     * Gets the episode on a row in the episode table.
+     * @param row   int - the table row.
+     * @return  RadioEpisodeInfo - the episode, else null.
      */
-    public void addEpisodeToTable(String title, String startTime,
-                                  String endTime) {
-        episodeTable.addRow(new Object[]{ title, startTime + " - " + endTime});
+    public RadioEpisodeInfo getEpisodeInfo(int row) {
+        return episodeTable.getEpisodeInfo(row);
     }
 
     /**
@@ -0,0 +1,873 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that represents a persistent http cache. Responses are saved on disk
+ * with their ETag, Last-Modified, expire time and a hash of the body. A
+ * fresh response is served from disk without a request, a stale one is
+ * revalidated with a conditional request and served from disk on 304 Not
+ * Modified. A downloaded body is copied to disk while the caller reads it.
+ * The total size on disk is bounded, the least recently used response is
+ * removed first. Files are only written and deleted outside the lock on the
+ * entries. The requests are sent by a pluggable transport.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoHttpCache {
+
+    /* Default size of the cache in bytes. */
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private final File directory;   //Directory for the cached responses.
+    private final long maxBytes;    //Maximum size of the cache in bytes.
+    private long cachedBytes = 0;   //Current size of the cache in bytes.
+    /* Cache entries by key, in least recently used order. */
+    private LinkedHashMap<String, Entry> entries = null;
+
+    private final AtomicLong hitCount = new AtomicLong();          //Fresh.
+    private final AtomicLong notModifiedCount = new AtomicLong();  //304.
+    private final AtomicLong missCount = new AtomicLong();         //200.
+
+    /* Default connect timeout in milliseconds. */
+    private static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    /* Default time to read a whole response in milliseconds. */
+    private static final int DEFAULT_READ_TIMEOUT = 15000;
+    /* The transport shared by all caches, so they share connections. */
+    private static RadioInfoTransport defaultTransport = null;
+    private final RadioInfoTransport transport; //Sends the requests.
+
+    /**
+     * Constructor for the http cache. The directory and size in bytes are
+     * read from the system properties "radioinfo.cache.dir" and
+     * "radioinfo.cache.bytes".
+     */
+    public RadioInfoHttpCache() {
+        this(getDefaultDirectory(),
+             Long.getLong("radioinfo.cache.bytes", DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Gets the cache directory, read from the system property
+     * "radioinfo.cache.dir".
+     * @return  File - the cache directory.
+     */
+    public static File getDefaultDirectory() {
+        return new File(System.getProperty("radioinfo.cache.dir",
+                        System.getProperty("user.home") + File.separator +
+                        ".radioinfo" + File.separator + "cache"));
+    }
+
+    /**
+     * Constructor for the http cache. Takes the cache directory and the
+     * maximum size in bytes as parameters.
+     * @param directory File - the cache directory.
+     * @param maxBytes  long - the maximum size of the cache in bytes.
+     */
+    public RadioInfoHttpCache(File directory, long maxBytes) {
+        this(directory, maxBytes, getDefaultTransport());
+    }
+
+    /**
+     * Constructor for the http cache. Takes the cache directory, the maximum
+     * size in bytes and the transport as parameters.
+     * @param directory File - the cache directory.
+     * @param maxBytes  long - the maximum size of the cache in bytes.
+     * @param transport RadioInfoTransport - the transport.
+     */
+    public RadioInfoHttpCache(File directory, long maxBytes,
+                              RadioInfoTransport transport) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.transport = transport;
+    }
+
+    /**
+     * Gets the shared transport, creates it the first time. The system
+     * property "radioinfo.transport" chooses "httpclient" (default) or
+     * "urlconnection", the timeouts in milliseconds are read from
+     * "radioinfo.connect.timeout" and "radioinfo.read.timeout", the latter
+     * bounds the time to read a whole response.
+     * @return  RadioInfoTransport - the transport.
+     */
+    public static synchronized RadioInfoTransport getDefaultTransport() {
+        if (defaultTransport == null) {
+            int connectTimeout = Integer.getInteger(
+                    "radioinfo.connect.timeout", DEFAULT_CONNECT_TIMEOUT);
+            int readTimeout = Integer.getInteger("radioinfo.read.timeout",
+                                                 DEFAULT_READ_TIMEOUT);
+            if ("urlconnection".equals(System.getProperty(
+                    "radioinfo.transport"))) {
+                defaultTransport = new RadioInfoURLConnectionTransport(
+                        connectTimeout, readTimeout);
+            } else {
+                defaultTransport = new RadioInfoHttpClientTransport(
+                        connectTimeout, readTimeout);
+            }
+        }
+        return defaultTransport;
+    }
+
+    /**
+     * Gets the body of a response, from disk if possible. The response is
+     * fresh for as long as its Cache-Control header says.
+     * @param address   String - the address.
+     * @param report    RadioInfoRefreshReport - report to count the request
+     *                  in, may be null.
+     * @return  byte[] - the response body.
+     * @throws IOException
+     */
+    public byte[] get(String address, RadioInfoRefreshReport report)
+            throws IOException {
+        return get(address, null, report);
+    }
+
+    /**
+     * Gets the whole body of a response, from disk if possible.
+     * @param address   String - the address.
+     * @param type      RadioInfoResourceType - the resource type, may be
+     *                  null.
+     * @param report    RadioInfoRefreshReport - report to count the request
+     *                  in, may be null.
+     * @return  byte[] - the response body.
+     * @throws IOException
+     */
+    public byte[] get(String address, RadioInfoResourceType type,
+                      RadioInfoRefreshReport report) throws IOException {
+        return readAll(open(address, type, report));
+    }
+
+    /**
+     * Opens the body of a response, from disk if possible. The response is
+     * fresh for as long as its Cache-Control header says, or for the time to
+     * live of its type if the header does not say. A downloaded body is
+     * saved when it has been read to its end. The body must be closed.
+     * @param address   String - the address.
+     * @param type      RadioInfoResourceType - the resource type, may be
+     *                  null.
+     * @param report    RadioInfoRefreshReport - report to count the request
+     *                  in, may be null.
+     * @return  Body - the response body.
+     * @throws IOException
+     */
+    public Body open(String address, RadioInfoResourceType type,
+                     RadioInfoRefreshReport report) throws IOException {
+        String key = key(address);
+        Entry entry = getEntry(key);
+        long now = System.currentTimeMillis();
+        /* Fresh response, no request needed. */
+        if (entry != null && now < entry.expires) {
+            Body body = openSaved(key, entry);
+            if (body != null) {
+                hitCount.incrementAndGet();
+                if (report != null) {
+                    report.countCacheHit();
+                }
+                return body;
+            }
+        }
+
+        Map<String, String> headers = new HashMap<String, String>();
+        if (entry != null) {
+            if (entry.eTag != null) {
+                headers.put("If-None-Match", entry.eTag);
+            }
+            if (entry.lastModified != null) {
+                headers.put("If-Modified-Since", entry.lastModified);
+            }
+        }
+        RadioInfoHttpResponse response = transport.get(address, headers);
+        int status = response.getStatus();
+        String cacheControl = response.getHeader("Cache-Control");
+
+        /* Not modified, serve the saved body. */
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+            response.getBody().close();
+            Body body = openSaved(key, entry);
+            if (body != null) {
+                refreshEntry(key, entry, expires(cacheControl, now, type));
+                notModifiedCount.incrementAndGet();
+                if (report != null) {
+                    report.countNotModified();
+                }
+                return body;
+            }
+            /* The saved body is gone, fetch it again without validators. */
+            removeEntry(key);
+            return open(address, type, report);
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            response.getBody().close();
+            throw new RadioInfoHttpException(status, address);
+        }
+
+        missCount.incrementAndGet();
+        Entry fetched = null;
+        if (!getDirectives(cacheControl).containsKey("no-store")) {
+            fetched = new Entry();
+            fetched.address = address;
+            fetched.eTag = response.getHeader("ETag");
+            fetched.lastModified = response.getHeader("Last-Modified");
+            fetched.expires = expires(cacheControl, now, type);
+        }
+        return new Body(response, key, fetched, report);
+    }
+
+    /**
+     * Gets the amount of responses served from disk without a request.
+     * @return  long - the amount of hits.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the amount of responses revalidated with 304 Not Modified.
+     * @return  long - the amount of not modified responses.
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * Gets the amount of responses downloaded in full.
+     * @return  long - the amount of misses.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Calculates when a response expires from its Cache-Control header.
+     * @param cacheControl  String - the header, may be null.
+     * @param now           long - the time of the response.
+     * @return  long - the expire time in milliseconds.
+     */
+    static long expires(String cacheControl, long now) {
+        Map<String, String> directives = getDirectives(cacheControl);
+        String maxAge = directives.get("max-age");
+        if (maxAge == null || directives.containsKey("no-cache")
+                || directives.containsKey("no-store")) {
+            return now;
+        }
+        try {
+            return now + Long.parseLong(maxAge) * 1000;
+        } catch (NumberFormatException e) {
+            return now;
+        }
+    }
+
+    /**
+     * Calculates when a response expires. A Cache-Control header that says
+     * how long the response is fresh, or that it must not be reused, is
+     * followed. Without one the time to live of its type is used.
+     * @param cacheControl  String - the header, may be null.
+     * @param now           long - the time of the response.
+     * @param type          RadioInfoResourceType - the type, may be null.
+     * @return  long - the expire time in milliseconds.
+     */
+    static long expires(String cacheControl, long now,
+                        RadioInfoResourceType type) {
+        if (type == null || hasFreshness(cacheControl)) {
+            return expires(cacheControl, now);
+        }
+        return type.expires(now);
+    }
+
+    /**
+     * Checks if a Cache-Control header gives the response's freshness.
+     * @param cacheControl  String - the header, may be null.
+     * @return  boolean - true if it has a max-age, no-cache or no-store
+     *                    directive, else false.
+     */
+    static boolean hasFreshness(String cacheControl) {
+        Map<String, String> directives = getDirectives(cacheControl);
+        return directives.containsKey("max-age")
+                || directives.containsKey("no-cache")
+                || directives.containsKey("no-store");
+    }
+
+    /**
+     * Reads the directives of a Cache-Control header. Directive names are
+     * not case sensitive, so the header is lower cased first.
+     * @param cacheControl  String - the header, may be null.
+     * @return  Map - the directives' values by name, an empty value for a
+     *                directive without one.
+     */
+    private static Map<String, String> getDirectives(String cacheControl) {
+        Map<String, String> directives = new HashMap<String, String>();
+        if (cacheControl == null) {
+            return directives;
+        }
+        for (String directive :
+                cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            int equals = directive.indexOf('=');
+            if (equals < 0) {
+                directives.put(directive.trim(), "");
+            } else {
+                directives.put(directive.substring(0, equals).trim(),
+                               directive.substring(equals + 1).trim().
+                               replace("\"", ""));
+            }
+        }
+        return directives;
+    }
+
+    /**
+     * Gets an entry and marks it as recently used.
+     * @param key   String - the entry key.
+     * @return  Entry - the entry, else null.
+     */
+    private synchronized Entry getEntry(String key) {
+        return loadEntries().get(key);
+    }
+
+    /**
+     * Opens a saved response body.
+     * @param key   String - the entry key.
+     * @param entry Entry - the entry.
+     * @return  Body - the body, null if it could not be opened.
+     */
+    private Body openSaved(String key, Entry entry) {
+        try {
+            return new Body(new FileInputStream(new File(directory,
+                            key + ".body")), entry.hash);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gives a revalidated entry a new expire time. The entry is replaced by
+     * a copy, so an entry is never changed once other threads can see it.
+     * @param key       String - the entry key.
+     * @param entry     Entry - the revalidated entry.
+     * @param expires   long - the new expire time in milliseconds.
+     */
+    private void refreshEntry(String key, Entry entry, long expires) {
+        Entry refreshed = entry.copy();
+        refreshed.expires = expires;
+        synchronized (this) {
+            /* Removed or replaced while it was revalidated. */
+            if (loadEntries().get(key) != entry) {
+                return;
+            }
+            entries.put(key, refreshed);
+        }
+        try {
+            writeMeta(key, refreshed);
+        } catch (IOException e) {
+            /* The old meta file is kept, it is only revalidated sooner. */
+        }
+    }
+
+    /**
+     * Saves a downloaded response whose body has been copied to a temporary
+     * file, and removes the least recently used responses until the cache
+     * fits its size. A response that can not be saved is left out.
+     * @param key   String - the entry key.
+     * @param entry Entry - the entry.
+     * @param temp  File - the copy of the body.
+     */
+    private void putEntry(String key, Entry entry, File temp) {
+        try {
+            Files.move(temp.toPath(), new File(directory, key + ".body").
+                       toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            writeMeta(key, entry);
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        List<String> removed = new ArrayList<String>();
+        synchronized (this) {
+            LinkedHashMap<String, Entry> loaded = loadEntries();
+            Entry old = loaded.put(key, entry);
+            if (old != null) {
+                cachedBytes -= old.size;
+            }
+            cachedBytes += entry.size;
+            Iterator<Map.Entry<String, Entry>> it;
+            it = loaded.entrySet().iterator();
+            while (cachedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                cachedBytes -= eldest.getValue().size;
+                removed.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String removedKey : removed) {
+            deleteFiles(removedKey);
+        }
+    }
+
+    /**
+     * Removes a response from the cache.
+     * @param key   String - the entry key.
+     */
+    private void removeEntry(String key) {
+        synchronized (this) {
+            Entry old = loadEntries().remove(key);
+            if (old != null) {
+                cachedBytes -= old.size;
+            }
+        }
+        deleteFiles(key);
+    }
+
+    /**
+     * Loads the entries from disk the first time, oldest used first.
+     * @return  LinkedHashMap - the entries.
+     */
+    private LinkedHashMap<String, Entry> loadEntries() {
+        if (entries != null) {
+            return entries;
+        }
+        entries = new LinkedHashMap<String, Entry>(64, 0.75f, true);
+        directory.mkdirs();
+        File[] metaFiles = directory.listFiles();
+        if (metaFiles == null) {
+            return entries;
+        }
+        List<File> sorted = new ArrayList<File>();
+        for (File file : metaFiles) {
+            if (file.getName().endsWith(".meta")) {
+                sorted.add(file);
+            }
+        }
+        Collections.sort(sorted, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : sorted) {
+            String name = file.getName();
+            String key = name.substring(0, name.length() - 5);
+            Entry entry = readMeta(file);
+            if (entry == null) {
+                deleteFiles(key);
+            } else {
+                entries.put(key, entry);
+                cachedBytes += entry.size;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads an entry from a meta file.
+     * @param file  File - the meta file.
+     * @return  Entry - the entry, null if it could not be read.
+     */
+    private Entry readMeta(File file) {
+        Properties meta = new Properties();
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                meta.load(in);
+            } finally {
+                in.close();
+            }
+            Entry entry = new Entry();
+            entry.address = meta.getProperty("address");
+            entry.eTag = meta.getProperty("etag");
+            entry.lastModified = meta.getProperty("lastmodified");
+            entry.expires = Long.parseLong(meta.getProperty("expires", "0"));
+            entry.size = Long.parseLong(meta.getProperty("size", "0"));
+            entry.hash = fromHex(meta.getProperty("hash"));
+            return entry;
+        } catch (IOException e) {
+            return null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes an entry to its meta file.
+     * @param key   String - the entry key.
+     * @param entry Entry - the entry.
+     * @throws IOException
+     */
+    private void writeMeta(String key, Entry entry) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("address", entry.address);
+        if (entry.eTag != null) {
+            meta.setProperty("etag", entry.eTag);
+        }
+        if (entry.lastModified != null) {
+            meta.setProperty("lastmodified", entry.lastModified);
+        }
+        meta.setProperty("expires", Long.toString(entry.expires));
+        meta.setProperty("size", Long.toString(entry.size));
+        if (entry.hash != null) {
+            meta.setProperty("hash", toHex(entry.hash));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        meta.store(out, null);
+        writeFile(new File(directory, key + ".meta"), out.toByteArray());
+    }
+
+    /**
+     * Writes a file by writing a temporary file and moving it in place, so a
+     * half written file is never read.
+     * @param file  File - the file.
+     * @param data  byte[] - the contents.
+     * @throws IOException
+     */
+    private void writeFile(File file, byte[] data) throws IOException {
+        directory.mkdirs();
+        File temp = File.createTempFile("radioinfo", ".tmp", directory);
+        try {
+            OutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(data);
+            } finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Deletes the files of an entry.
+     * @param key   String - the entry key.
+     */
+    private void deleteFiles(String key) {
+        new File(directory, key + ".body").delete();
+        new File(directory, key + ".meta").delete();
+    }
+
+    /**
+     * Reads all bytes from a stream and closes it.
+     * @param in    InputStream - the stream.
+     * @return  byte[] - the bytes.
+     * @throws IOException
+     */
+    static byte[] readAll(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Creates the file name key for an address.
+     * @param address   String - the address.
+     * @return  String - the key, a hex encoded hash of the address.
+     */
+    private static String key(String address) {
+        MessageDigest digest = createDigest();
+        return toHex(digest.digest(address.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a SHA-256 digest.
+     * @return  MessageDigest - the digest.
+     */
+    static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encodes bytes as hex.
+     * @param bytes byte[] - the bytes.
+     * @return  String - the hex text.
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder text = new StringBuilder();
+        for (byte b : bytes) {
+            text.append(Character.forDigit((b >> 4) & 0xf, 16));
+            text.append(Character.forDigit(b & 0xf, 16));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Decodes hex text to bytes.
+     * @param text  String - the hex text, may be null.
+     * @return  byte[] - the bytes, null if the text is not hex.
+     */
+    private static byte[] fromHex(String text) {
+        if (text == null || text.length() % 2 != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[text.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(text.charAt(2 * i), 16);
+            int low = Character.digit(text.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * The body of a response read through the cache. A body read from disk
+     * is only read. A downloaded body is hashed and copied to a temporary
+     * file while it is read, and saved in the cache once it has been read
+     * to its end. A body closed before its end is not saved.
+     */
+    public class Body extends FilterInputStream {
+        private final RadioInfoHttpResponse response;   //Download, or null.
+        private final String key;       //Entry key of a download.
+        private final Entry entry;      //Entry to save, else null.
+        private final RadioInfoRefreshReport report;    //Report, or null.
+        private MessageDigest digest = null;    //Hashes the body, or null.
+        private byte[] hash;            //Hash of the whole body, or null.
+        private File temp = null;       //Copy of the body, or null.
+        private OutputStream copy = null;   //Writes the copy, or null.
+        private long size = 0;          //Bytes read so far.
+        private boolean isEnded = false;    //If the end has been read.
+        private boolean isClosed = false;   //If the body is closed.
+
+        /**
+         * Constructor for a body read from disk.
+         * @param in    InputStream - the saved body.
+         * @param hash  byte[] - the saved hash, null if unknown.
+         */
+        private Body(InputStream in, byte[] hash) {
+            super(in);
+            this.response = null;
+            this.key = null;
+            this.entry = null;
+            this.report = null;
+            this.hash = hash;
+            if (hash == null) {
+                digest = createDigest();
+            }
+        }
+
+        /**
+         * Constructor for a downloaded body.
+         * @param response  RadioInfoHttpResponse - the response.
+         * @param key       String - the entry key.
+         * @param entry     Entry - the entry to save, null if the response
+         *                  is not to be saved.
+         * @param report    RadioInfoRefreshReport - report to count the
+         *                  download in, may be null.
+         */
+        private Body(RadioInfoHttpResponse response, String key, Entry entry,
+                     RadioInfoRefreshReport report) {
+            super(response.getBody());
+            this.response = response;
+            this.key = key;
+            this.entry = entry;
+            this.report = report;
+            this.hash = null;
+            digest = createDigest();
+            if (entry != null) {
+                try {
+                    directory.mkdirs();
+                    temp = File.createTempFile("radioinfo", ".tmp",
+                                               directory);
+                    copy = new BufferedOutputStream(
+                            new FileOutputStream(temp));
+                } catch (IOException e) {
+                    dropCopy();
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int read = read(one, 0, 1);
+            return read == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                size += read;
+                if (digest != null) {
+                    digest.update(b, off, read);
+                }
+                if (copy != null) {
+                    try {
+                        copy.write(b, off, read);
+                    } catch (IOException e) {
+                        /* The caller still gets the body, it is not saved. */
+                        dropCopy();
+                    }
+                }
+            } else if (read == -1) {
+                end();
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0,
+                                (int) Math.min(n - skipped, buffer.length));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Reads the rest of the body, so it is hashed and saved.
+         * @throws IOException
+         */
+        public void readToEnd() throws IOException {
+            byte[] buffer = new byte[8192];
+            while (!isEnded && read(buffer, 0, buffer.length) != -1) {
+                /* Only read to the end. */
+            }
+        }
+
+        /**
+         * Gets the hash of the whole body. It is known from the start for a
+         * body read from disk, else once the body has been read to its end.
+         * @return  byte[] - the SHA-256 hash, else null.
+         */
+        public byte[] getHash() {
+            return hash;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            try {
+                if (!isEnded) {
+                    dropCopy();
+                }
+                in.close();
+            } finally {
+                if (response != null && report != null) {
+                    report.countDownload(response.getWireBytes());
+                }
+            }
+        }
+
+        /**
+         * Finishes the hash and saves a downloaded body when its end has
+         * been read.
+         */
+        private void end() {
+            if (isEnded) {
+                return;
+            }
+            isEnded = true;
+            if (digest != null) {
+                hash = digest.digest();
+                digest = null;
+            }
+            if (copy != null) {
+                try {
+                    copy.close();
+                } catch (IOException e) {
+                    dropCopy();
+                    return;
+                }
+                copy = null;
+                entry.size = size;
+                entry.hash = hash;
+                putEntry(key, entry, temp);
+                temp = null;
+            }
+        }
+
+        /**
+         * Stops copying the body and deletes the copy.
+         */
+        private void dropCopy() {
+            if (copy != null) {
+                try {
+                    copy.close();
+                } catch (IOException e) {
+                    /* The copy is deleted anyway. */
+                }
+                copy = null;
+            }
+            if (temp != null) {
+                temp.delete();
+                temp = null;
+            }
+        }
+    }
+
+    /**
+     * A cached response's validators, expire time and hash. An entry is not
+     * changed once it is in the cache.
+     */
+    private static class Entry {
+        private String address = null;      //The address.
+        private String eTag = null;         //The ETag header.
+        private String lastModified = null; //The Last-Modified header.
+        private long expires = 0;           //Expire time in milliseconds.
+        private long size = 0;              //Size of the body in bytes.
+        private byte[] hash = null;         //SHA-256 of the body, or null.
+
+        /**
+         * Copies the entry.
+         * @return  Entry - the copy.
+         */
+        private Entry copy() {
+            Entry copy = new Entry();
+            copy.address = address;
+            copy.eTag = eTag;
+            copy.lastModified = lastModified;
+            copy.expires = expires;
+            copy.size = size;
+            copy.hash = hash;
+            return copy;
+        }
+    }
+}
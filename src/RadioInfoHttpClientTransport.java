@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Class that represents the transport built on the java http client. One
+ * client keeps its connections open and shares them between all requests,
+ * HTTP/2 is used where the server supports it and bodies are asked for
+ * gzip compressed. The body is handed on as a stream read from the
+ * connection.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoHttpClientTransport implements RadioInfoTransport {
+
+    private final HttpClient client;        //The shared client.
+    /* Time to read a whole response, headers and body. */
+    private final Duration responseTimeout;
+
+    /**
+     * Constructor for the transport. The request's own timeout only covers
+     * the wait for the headers, the body is read within what is left of the
+     * response timeout.
+     * @param connectTimeout    long - connect timeout in milliseconds.
+     * @param responseTimeout   long - time in milliseconds to read a whole
+     *                                 response, headers and body.
+     */
+    public RadioInfoHttpClientTransport(long connectTimeout,
+                                        long responseTimeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+        this.responseTimeout = Duration.ofMillis(responseTimeout);
+    }
+
+    @Override
+    public RadioInfoHttpResponse get(String address,
+                                     Map<String, String> headers)
+            throws IOException {
+        HttpRequest.Builder request = newRequest(address)
+                .timeout(responseTimeout)
+                .header("Accept-Encoding", "gzip");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            request.header(header.getKey(), header.getValue());
+        }
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request.GET().build(),
+                                   HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.toString());
+        }
+        HttpHeaders responseHeaders = response.headers();
+        long left = responseTimeout.toMillis() -
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        InputStream connection = response.body();
+        RadioInfoCountingInputStream wire = new RadioInfoCountingInputStream(
+                new RadioInfoDeadlineInputStream(connection, left,
+                                                 connection));
+        InputStream body = wire;
+        String encoding = responseHeaders.firstValue("Content-Encoding").
+                orElse(null);
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            try {
+                body = new GZIPInputStream(wire);
+            } catch (IOException e) {
+                wire.close();
+                throw e;
+            }
+        }
+        Map<String, String> values = new HashMap<String, String>();
+        for (Map.Entry<String, List<String>> header :
+                responseHeaders.map().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                values.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+        return new RadioInfoHttpResponse(response.statusCode(), values, body,
+                                         wire);
+    }
+
+    @Override
+    public void warmUp(String address) {
+        try {
+            HttpRequest request = newRequest(address)
+                    .timeout(responseTimeout)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            /* Only a warm-up, the real request reports the error. */
+        }
+    }
+
+    /**
+     * Starts a request to an address.
+     * @param address   String - the address.
+     * @return  HttpRequest.Builder - the request.
+     * @throws MalformedURLException
+     */
+    private static HttpRequest.Builder newRequest(String address)
+            throws MalformedURLException {
+        try {
+            URI uri = URI.create(address);
+            String scheme = uri.getScheme();
+            if (!"http".equalsIgnoreCase(scheme)
+                    && !"https".equalsIgnoreCase(scheme)) {
+                throw new MalformedURLException("Bad address: " + address);
+            }
+            return HttpRequest.newBuilder(uri);
+        } catch (IllegalArgumentException e) {
+            MalformedURLException bad;
+            bad = new MalformedURLException("Bad address: " + address);
+            bad.initCause(e);
+            throw bad;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+import java.io.IOException;
+
+/**
+ * Class that represents a http response with an error status. Keeps the
+ * status so the caller can tell a failure worth trying again from one that
+ * will fail the same way every time.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoHttpException extends IOException {
+
+    private static final long serialVersionUID = 1L;   //Serial version.
+    /* Status of too many requests, not named in HttpURLConnection. */
+    private static final int TOO_MANY_REQUESTS = 429;
+    private final int status;       //The status code.
+
+    /**
+     * Constructor for the exception.
+     * @param status    int - the status code.
+     * @param address   String - the address that was requested.
+     */
+    public RadioInfoHttpException(int status, String address) {
+        super("HTTP " + status + " for " + address);
+        this.status = status;
+    }
+
+    /**
+     * Gets the status code.
+     * @return  int - the status code.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the request may succeed if it is tried again, which is the
+     * case for server errors and too many requests.
+     * @return  boolean - true if the failure is transient, else false.
+     */
+    public boolean isTransient() {
+        return status >= 500 || status == TOO_MANY_REQUESTS;
+    }
+}
@@ -0,0 +1,112 @@
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class that represents a response read by a transport. Holds the status,
+ * the headers and the decompressed body as a stream, which is read straight
+ * from the connection.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoHttpResponse {
+
+    private final int status;       //The status code.
+    /* The headers by name, any case. */
+    private final Map<String, String> headers;
+    private final InputStream body;     //The decompressed body.
+    /* Counts the body as sent, null if the size is known. */
+    private final RadioInfoCountingInputStream wire;
+    private final long wireBytes;   //Size of the body as sent, if known.
+
+    /**
+     * Constructor for a response with a body that has been read.
+     * @param status    int - the status code.
+     * @param headers   Map - the headers by name.
+     * @param body      byte[] - the decompressed body.
+     * @param wireBytes long - size of the body as sent.
+     */
+    public RadioInfoHttpResponse(int status, Map<String, String> headers,
+                                 byte[] body, long wireBytes) {
+        this(status, headers, new ByteArrayInputStream(body), null,
+             wireBytes);
+    }
+
+    /**
+     * Constructor for a response with a body that is read from the
+     * connection.
+     * @param status    int - the status code.
+     * @param headers   Map - the headers by name.
+     * @param body      InputStream - the decompressed body.
+     * @param wire      RadioInfoCountingInputStream - the body as sent, the
+     *                  decompressed body is read from it.
+     */
+    public RadioInfoHttpResponse(int status, Map<String, String> headers,
+                                 InputStream body,
+                                 RadioInfoCountingInputStream wire) {
+        this(status, headers, body, wire, 0);
+    }
+
+    /**
+     * Constructor for a response.
+     * @param status    int - the status code.
+     * @param headers   Map - the headers by name.
+     * @param body      InputStream - the decompressed body.
+     * @param wire      RadioInfoCountingInputStream - the body as sent, null
+     *                  if its size is known.
+     * @param wireBytes long - size of the body as sent, if known.
+     */
+    private RadioInfoHttpResponse(int status, Map<String, String> headers,
+                                  InputStream body,
+                                  RadioInfoCountingInputStream wire,
+                                  long wireBytes) {
+        this.status = status;
+        TreeMap<String, String> sorted;
+        sorted = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        sorted.putAll(headers);
+        this.headers = Collections.unmodifiableMap(sorted);
+        this.body = body;
+        this.wire = wire;
+        this.wireBytes = wireBytes;
+    }
+
+    /**
+     * Gets the status code.
+     * @return  int - the status code.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets a header.
+     * @param name  String - the header name, any case.
+     * @return  String - the header value, else null.
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Gets the decompressed body. The stream must be closed, also when it is
+     * not read, so the connection can be reused.
+     * @return  InputStream - the body.
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the size of the body as it was sent, before decompressing. For a
+     * body read from the connection it is the size read so far.
+     * @return  long - the size in bytes.
+     */
+    public long getWireBytes() {
+        if (wire != null) {
+            return wire.getCount();
+        }
+        return wireBytes;
+    }
+}
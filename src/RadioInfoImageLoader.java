@@ -0,0 +1,191 @@
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Class that represents the episode image loader. Images are downloaded,
+ * decoded and scaled down in the background and kept in a size bounded
+ * cache where the least recently used image is removed first. Downloaded
+ * images are also kept on disk in an http cache of their own, for as long
+ * as the image time to live says.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoImageLoader {
+
+    /* Default size of the cache in bytes. */
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    /* Default size of the disk cache in bytes. */
+    private static final long DEFAULT_DISK_BYTES = 64L * 1024 * 1024;
+    private final RadioInfoHttpCache httpCache;   //Cache for downloads.
+    private final long maxBytes;    //Maximum size of the cache in bytes.
+    private long cachedBytes = 0;   //Current size of the cache in bytes.
+    /* Scaled images by url, in least recently used order. */
+    private final LinkedHashMap<String, BufferedImage> images;
+
+    /**
+     * Constructor for the image loader. The cache size in bytes is read from
+     * the system property "radioinfo.imagecache.bytes".
+     */
+    public RadioInfoImageLoader() {
+        this(Long.getLong("radioinfo.imagecache.bytes", DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Constructor for the image loader. Takes the cache size in bytes as
+     * parameter. The images are kept on disk in the "images" directory of
+     * the http cache, its size in bytes is read from the system property
+     * "radioinfo.imagecache.disk.bytes".
+     * @param maxBytes  long - the maximum size of the cache in bytes.
+     */
+    public RadioInfoImageLoader(long maxBytes) {
+        this(maxBytes, new RadioInfoHttpCache(
+                new File(RadioInfoHttpCache.getDefaultDirectory(), "images"),
+                Long.getLong("radioinfo.imagecache.disk.bytes",
+                             DEFAULT_DISK_BYTES)));
+    }
+
+    /**
+     * Constructor for the image loader. Takes the cache size in bytes and
+     * the http cache images are downloaded through as parameters.
+     * @param maxBytes  long - the maximum size of the cache in bytes.
+     * @param httpCache RadioInfoHttpCache - the http cache.
+     */
+    public RadioInfoImageLoader(long maxBytes, RadioInfoHttpCache httpCache) {
+        this.maxBytes = maxBytes;
+        this.httpCache = httpCache;
+        images = new LinkedHashMap<String, BufferedImage>(16, 0.75f, true);
+    }
+
+    /**
+     * Shows an image in a label. A cached image is shown at once, else the
+     * label shows a placeholder text until the image has been loaded in the
+     * background. Must be called on the event dispatch thread.
+     * @param imageURL  String - the image url.
+     * @param label     JLabel - the label to show the image in.
+     */
+    public void loadImage(final String imageURL, final JLabel label) {
+        BufferedImage image = getCachedImage(imageURL);
+        if (image != null) {
+            showImage(label, image);
+            return;
+        }
+        label.setText("Loading image...");
+        new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() throws IOException {
+                BufferedImage scaled = readScaledImage(imageURL);
+                putCachedImage(imageURL, scaled);
+                return scaled;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    showImage(label, get());
+                } catch (InterruptedException e) {
+                    label.setText(e.toString());
+                } catch (ExecutionException e) {
+                    label.setText(e.getCause().toString());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Shows an image in a label instead of its text.
+     * @param label JLabel - the label.
+     * @param image BufferedImage - the image.
+     */
+    private void showImage(JLabel label, BufferedImage image) {
+        label.setText(null);
+        label.setIcon(new ImageIcon(image));
+        label.revalidate();
+    }
+
+    /**
+     * Downloads, or reads from disk, and decodes an image and scales it to
+     * half its size.
+     * @param imageURL  String - the image url.
+     * @return  BufferedImage - the scaled image.
+     * @throws IOException
+     */
+    private BufferedImage readScaledImage(String imageURL)
+            throws IOException {
+        byte[] body = httpCache.get(imageURL, RadioInfoResourceType.IMAGE,
+                                    null);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(body));
+        if (image == null) {
+            throw new IOException("Unknown image format: " + imageURL);
+        }
+        int imageWidth = Math.max(1, image.getWidth() / 2);
+        int imageHeight = Math.max(1, image.getHeight() / 2);
+        BufferedImage scaled = new BufferedImage(imageWidth, imageHeight,
+                                                 BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                               RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, imageWidth, imageHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Gets an image from the cache and marks it as recently used.
+     * @param imageURL  String - the image url.
+     * @return  BufferedImage - the cached image, else null.
+     */
+    public synchronized BufferedImage getCachedImage(String imageURL) {
+        return images.get(imageURL);
+    }
+
+    /**
+     * Puts an image in the cache. Removes the least recently used images
+     * until the cache fits its size.
+     * @param imageURL  String - the image url.
+     * @param image     BufferedImage - the image.
+     */
+    public synchronized void putCachedImage(String imageURL,
+                                            BufferedImage image) {
+        BufferedImage old = images.put(imageURL, image);
+        if (old != null) {
+            cachedBytes -= imageBytes(old);
+        }
+        cachedBytes += imageBytes(image);
+        Iterator<Map.Entry<String, BufferedImage>> it;
+        it = images.entrySet().iterator();
+        while (cachedBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = it.next();
+            cachedBytes -= imageBytes(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    /**
+     * Gets the amount of cached images.
+     * @return  int - the amount of images.
+     */
+    public synchronized int getCachedCount() {
+        return images.size();
+    }
+
+    /**
+     * Estimates the memory used by an image.
+     * @param image BufferedImage - the image.
+     * @return  long - the size in bytes.
+     */
+    private static long imageBytes(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Class that represents the task that updates the episodes playing
+ * right now, between the full updates.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoNowPlayingTimer implements Runnable {
+
+    private final RadioInfoController controller;   //The controller.
+
+    /**
+     * Constructor for a new timer task.
+     * @param controller    RadioInfoController - the controller.
+     */
+    public RadioInfoNowPlayingTimer(RadioInfoController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public void run() {
+        controller.runNowPlayingUpdater();
+    }
+}
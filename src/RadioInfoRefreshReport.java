@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that represents the statistics of one update. Counted from every
+ * thread taking part in the update.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoRefreshReport {
+
+    /* Responses served from the cache without a request. */
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    /* Responses revalidated with 304 Not Modified. */
+    private final AtomicInteger notModified = new AtomicInteger();
+    /* Responses downloaded in full. */
+    private final AtomicInteger downloads = new AtomicInteger();
+    /* Bytes downloaded in full responses. */
+    private final AtomicLong downloadedBytes = new AtomicLong();
+    /* Pages not parsed since they were unchanged since the last update. */
+    private final AtomicInteger skippedPages = new AtomicInteger();
+    /* Requests tried again after failing. */
+    private final AtomicInteger retries = new AtomicInteger();
+    /* Errors that did not stop the update. */
+    private final List<String> errors = new ArrayList<String>();
+
+    /**
+     * Counts a response served from the cache without a request.
+     */
+    public void countCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    /**
+     * Counts a response revalidated with 304 Not Modified.
+     */
+    public void countNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    /**
+     * Counts a response downloaded in full.
+     * @param bytes long - the size of the response body.
+     */
+    public void countDownload(long bytes) {
+        downloads.incrementAndGet();
+        downloadedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Counts an unchanged page whose episodes from the last update are used.
+     */
+    public void countSkippedPage() {
+        skippedPages.incrementAndGet();
+    }
+
+    /**
+     * Counts a request tried again after failing.
+     */
+    public void countRetry() {
+        retries.incrementAndGet();
+    }
+
+    /**
+     * Adds an error that did not stop the update.
+     * @param error String - description of the error.
+     */
+    public synchronized void addError(String error) {
+        errors.add(error);
+    }
+
+    /**
+     * Gets the errors that did not stop the update.
+     * @return  List - copy of the errors in the order they happened.
+     */
+    public synchronized List<String> getErrors() {
+        return new ArrayList<String>(errors);
+    }
+
+    /**
+     * Gets the amount of requests tried again after failing.
+     * @return  int - the amount of retries.
+     */
+    public int getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Gets the amount of responses served from the cache.
+     * @return  int - the amount of cache hits.
+     */
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Gets the amount of responses revalidated with 304 Not Modified.
+     * @return  int - the amount of not modified responses.
+     */
+    public int getNotModified() {
+        return notModified.get();
+    }
+
+    /**
+     * Gets the amount of responses downloaded in full.
+     * @return  int - the amount of downloads.
+     */
+    public int getDownloads() {
+        return downloads.get();
+    }
+
+    /**
+     * Gets the amount of bytes downloaded in full responses.
+     * @return  long - the amount of bytes.
+     */
+    public long getDownloadedBytes() {
+        return downloadedBytes.get();
+    }
+
+    /**
+     * Gets the amount of unchanged pages whose episodes were reused.
+     * @return  int - the amount of skipped pages.
+     */
+    public int getSkippedPages() {
+        return skippedPages.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Cache hits: " + getCacheHits() + ", not modified: " +
+               getNotModified() + ", downloaded: " + getDownloads() +
+               " (" + (getDownloadedBytes() / 1024) + " kB), unchanged " +
+               "pages: " + getSkippedPages() + ", retries: " + getRetries() +
+               ", errors: " + getErrors().size();
+    }
+}
@@ -0,0 +1,270 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that represents the scheduler of the timed updates. Besides the
+ * full updates, each channel's schedule is refreshed on its own, at a time
+ * picked from its data: before its schedule runs out, sooner for a channel
+ * that changed since its last refresh, later for one that did not, and
+ * backing off after errors.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoRefreshScheduler {
+
+    private final RadioInfoController controller;   //The controller.
+    private final ScheduledExecutorService executor;    //Runs the timers.
+    private final long initialDelay;    //First refresh interval in ms.
+    private final long minDelay;        //Shortest refresh interval in ms.
+    private final long maxDelay;        //Longest refresh interval in ms.
+    private final long errorDelay;      //First delay after an error in ms.
+    /* Time before a schedule runs out it is refreshed, in ms. */
+    private final long horizonMargin;
+    /* Refresh state by channel id. */
+    private final Map<Integer, ChannelState> states =
+            new HashMap<Integer, ChannelState>();
+
+    /**
+     * Constructor for the scheduler. The intervals in minutes are read from
+     * the system properties "radioinfo.refresh.minutes",
+     * "radioinfo.refresh.min.minutes", "radioinfo.refresh.max.minutes",
+     * "radioinfo.refresh.error.minutes" and
+     * "radioinfo.refresh.horizon.minutes".
+     * @param controller    RadioInfoController - the controller.
+     */
+    public RadioInfoRefreshScheduler(RadioInfoController controller) {
+        this(controller, minutes("radioinfo.refresh.minutes", 60),
+             minutes("radioinfo.refresh.min.minutes", 15),
+             minutes("radioinfo.refresh.max.minutes", 360),
+             minutes("radioinfo.refresh.error.minutes", 1),
+             minutes("radioinfo.refresh.horizon.minutes", 60));
+    }
+
+    /**
+     * Constructor for the scheduler. Takes the controller and the intervals
+     * in milliseconds as parameters.
+     * @param controller    RadioInfoController - the controller.
+     * @param initialDelay  long - the first refresh interval of a channel.
+     * @param minDelay      long - the shortest refresh interval.
+     * @param maxDelay      long - the longest refresh interval.
+     * @param errorDelay    long - the delay after a first error, doubled
+     *                             for each error in a row.
+     * @param horizonMargin long - how long before a schedule runs out it is
+     *                             refreshed.
+     */
+    public RadioInfoRefreshScheduler(RadioInfoController controller,
+                                     long initialDelay, long minDelay,
+                                     long maxDelay, long errorDelay,
+                                     long horizonMargin) {
+        this.controller = controller;
+        this.initialDelay = initialDelay;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.errorDelay = errorDelay;
+        this.horizonMargin = horizonMargin;
+        executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "RadioInfo-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Reads an interval in minutes from a system property.
+     * @param key       String - the property name.
+     * @param minutes   long - the default amount of minutes.
+     * @return  long - the interval in milliseconds.
+     */
+    private static long minutes(String key, long minutes) {
+        return TimeUnit.MINUTES.toMillis(Long.getLong(key, minutes));
+    }
+
+    /**
+     * Runs a task repeatedly, the first time after a delay.
+     * @param task      Runnable - the task.
+     * @param delay     long - delay before the first run in milliseconds.
+     * @param period    long - time between runs in milliseconds.
+     * @return  ScheduledFuture - cancels the runs.
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay,
+                                       long period) {
+        return executor.scheduleAtFixedRate(task, delay, period,
+                                            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a task once after a delay.
+     * @param task      Runnable - the task.
+     * @param delay     long - delay before the run in milliseconds.
+     */
+    public void schedule(Runnable task, long delay) {
+        executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules the next refresh of a channel that has been updated. The
+     * channel is compared to the one it was last scheduled with by the hash
+     * of its schedule as served, so episodes leaving the time span are not
+     * a change.
+     * @param channelInfo   RadioChannelInfo - the updated channel.
+     * @return  long - the delay to the next refresh in milliseconds, -1 if
+     *                 the channel has no schedule to refresh.
+     */
+    public synchronized long channelUpdated(RadioChannelInfo channelInfo) {
+        if (channelInfo.getId() == 0 || channelInfo.getScheduleURL() == null) {
+            return -1;
+        }
+        ChannelState state = getState(channelInfo.getId());
+        long delay = getRefreshDelay(state, channelInfo,
+                                     System.currentTimeMillis());
+        scheduleRefresh(state, channelInfo.getId(), delay);
+        return delay;
+    }
+
+    /**
+     * Schedules a refresh of a channel again after the shortest interval,
+     * without changing its refresh interval. Used when the refresh could not
+     * run.
+     * @param channelId int - the channel id.
+     */
+    public synchronized void postpone(int channelId) {
+        scheduleRefresh(getState(channelId), channelId, minDelay);
+    }
+
+    /**
+     * Forgets a channel that is no longer published and cancels its pending
+     * refresh.
+     * @param channelId int - the channel id.
+     */
+    public synchronized void channelRemoved(int channelId) {
+        ChannelState state = states.remove(channelId);
+        if (state != null && state.refresh != null) {
+            state.refresh.cancel(false);
+        }
+    }
+
+    /**
+     * Stops all timers.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gets a channel's refresh state, creates it the first time.
+     * @param channelId int - the channel id.
+     * @return  ChannelState - the state.
+     */
+    private ChannelState getState(int channelId) {
+        ChannelState state = states.get(channelId);
+        if (state == null) {
+            state = new ChannelState(initialDelay);
+            states.put(channelId, state);
+        }
+        return state;
+    }
+
+    /**
+     * Replaces a channel's pending refresh.
+     * @param state     ChannelState - the channel's state.
+     * @param channelId int - the channel id.
+     * @param delay     long - the delay in milliseconds.
+     */
+    private void scheduleRefresh(ChannelState state, final int channelId,
+                                 long delay) {
+        if (state.refresh != null) {
+            state.refresh.cancel(false);
+        }
+        state.refresh = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                controller.refreshChannel(channelId);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Picks the delay to a channel's next refresh and adapts its refresh
+     * interval. The interval is halved if the channel changed and doubled if
+     * not. After an error the delay is backed off instead, the interval is
+     * kept for when the channel is refreshed again. The channel is
+     * always refreshed before its schedule runs out.
+     * @param state         ChannelState - the channel's state.
+     * @param channelInfo   RadioChannelInfo - the updated channel.
+     * @param now           long - the time now in milliseconds.
+     * @return  long - the delay in milliseconds.
+     */
+    long getRefreshDelay(ChannelState state, RadioChannelInfo channelInfo,
+                         long now) {
+        RadioChannelInfo last = state.channelInfo;
+        state.channelInfo = channelInfo;
+        if (channelInfo.isStale()) {
+            state.errors++;
+            long delay = errorDelay << Math.min(state.errors - 1, 20);
+            return Math.min(maxDelay, delay);
+        }
+        /* After errors the interval is kept as it was. */
+        boolean isAdapted = last != null && state.errors == 0;
+        state.errors = 0;
+        if (isAdapted && isChanged(last, channelInfo)) {
+            state.interval = Math.max(minDelay, state.interval / 2);
+        } else if (isAdapted) {
+            state.interval = Math.min(maxDelay, state.interval * 2);
+        }
+        long delay = state.interval;
+        List<RadioEpisodeInfo> episodes = channelInfo.getEpisodesInfoList();
+        if (!episodes.isEmpty()) {
+            long runsOut = episodes.get(episodes.size() - 1).getEndTime();
+            delay = Math.min(delay, Math.max(minDelay,
+                                             runsOut - horizonMargin - now));
+        }
+        return delay;
+    }
+
+    /**
+     * Checks if a channel's schedule changed on the server since it was last
+     * scheduled. A channel whose schedule hash is not known is only
+     * unchanged if it is the same object.
+     * @param last          RadioChannelInfo - the channel last scheduled.
+     * @param channelInfo   RadioChannelInfo - the updated channel.
+     * @return  boolean - true if the schedule changed, else false.
+     */
+    private static boolean isChanged(RadioChannelInfo last,
+                                     RadioChannelInfo channelInfo) {
+        byte[] hash = channelInfo.getScheduleHash();
+        if (hash == null) {
+            return last != channelInfo;
+        }
+        return !Arrays.equals(hash, last.getScheduleHash());
+    }
+
+    /**
+     * A channel's refresh interval, errors in a row and pending refresh.
+     */
+    static class ChannelState {
+        private long interval;          //Refresh interval in milliseconds.
+        private int errors = 0;         //Failed refreshes in a row.
+        /* The channel the last refresh was scheduled with. */
+        private RadioChannelInfo channelInfo = null;
+        private ScheduledFuture<?> refresh = null;  //The pending refresh.
+
+        /**
+         * Constructor for a channel's state.
+         * @param interval  long - the first refresh interval in ms.
+         */
+        ChannelState(long interval) {
+            this.interval = interval;
+        }
+    }
+}
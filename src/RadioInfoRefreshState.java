@@ -0,0 +1,11 @@
+/**
+ * Enum for the states of a full update. An update goes from idle to fetching
+ * to publishing and back to idle.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public enum RadioInfoRefreshState {
+    IDLE,       //No update is running.
+    FETCHING,   //An update is fetching channels and schedules.
+    PUBLISHING  //An update is publishing and showing its snapshot.
+}
@@ -0,0 +1,47 @@
+/**
+ * Enum for the kinds of resources that are fetched. Each kind is kept fresh
+ * in the http cache for its own time to live, read in seconds from a system
+ * property, a negative time keeps it for ever. The time to live is only
+ * used when a response's Cache-Control header does not say how long it is
+ * fresh.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public enum RadioInfoResourceType {
+    CHANNELS("radioinfo.ttl.channels.seconds", 24 * 3600),  //Channel list.
+    SCHEDULE("radioinfo.ttl.schedules.seconds", 600),       //Schedules.
+    NOW_PLAYING("radioinfo.ttl.nowplaying.seconds", 0),     //Playing now.
+    IMAGE("radioinfo.ttl.images.seconds", -1);              //Images.
+
+    private final long timeToLive;  //Time to live in ms, negative for ever.
+
+    /**
+     * Constructor for a resource type.
+     * @param key       String - the system property for the time to live.
+     * @param seconds   long - the default time to live in seconds.
+     */
+    RadioInfoResourceType(String key, long seconds) {
+        seconds = Long.getLong(key, seconds);
+        timeToLive = seconds < 0 ? -1 : seconds * 1000;
+    }
+
+    /**
+     * Gets the time to live.
+     * @return  long - the time to live in milliseconds, negative for ever.
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Calculates when a resource fetched now stops being fresh.
+     * @param now   long - the time of the response in milliseconds.
+     * @return  long - the expire time in milliseconds.
+     */
+    public long expires(long now) {
+        if (timeToLive < 0) {
+            return Long.MAX_VALUE;
+        }
+        return now + timeToLive;
+    }
+}
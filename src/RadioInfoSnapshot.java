@@ -0,0 +1,319 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class that represents a complete set of channel information from one
+ * update. A snapshot is built privately by the update and published whole,
+ * it is never changed after that, so readers always see either all of the
+ * old information or all of the new.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public final class RadioInfoSnapshot {
+
+    /* A snapshot without channels, used before the first update. */
+    public static final RadioInfoSnapshot EMPTY = new RadioInfoSnapshot(
+            new ArrayList<RadioChannelInfo>(), 0);
+
+    private final List<RadioChannelInfo> channelInfoList;   //The channels.
+    /* Channels by name. */
+    private final HashMap<String, RadioChannelInfo> channelsByName;
+    /* Channels by id. */
+    private final HashMap<Integer, RadioChannelInfo> channelsById;
+    private final long updateTime;  //Time for update in milliseconds.
+
+    /**
+     * Constructor for a snapshot. Takes the channels in display order and
+     * the time of the update as parameters. The channels must not be changed
+     * after this.
+     * @param channels      List - the channels.
+     * @param updateTime    long - the update time in milliseconds.
+     */
+    public RadioInfoSnapshot(List<RadioChannelInfo> channels,
+                             long updateTime) {
+        this.channelInfoList = Collections.unmodifiableList(
+                new ArrayList<RadioChannelInfo>(channels));
+        this.channelsByName = new HashMap<String, RadioChannelInfo>();
+        this.channelsById = new HashMap<Integer, RadioChannelInfo>();
+        this.updateTime = updateTime;
+        for (RadioChannelInfo channelInfo : channelInfoList) {
+            if (channelInfo.getName() != null) {
+                channelsByName.put(channelInfo.getName(), channelInfo);
+            }
+            if (channelInfo.getId() != 0) {
+                channelsById.put(channelInfo.getId(), channelInfo);
+            }
+        }
+    }
+
+    /**
+     * Gets the channels in display order.
+     * @return  List - the unmodifiable list of channels.
+     */
+    public List<RadioChannelInfo> getChannelInfoList() {
+        return channelInfoList;
+    }
+
+    /**
+     * Gets a channel by name.
+     * @param channelName   String - the channel name.
+     * @return  RadioChannelInfo - the found channel, else null.
+     */
+    public RadioChannelInfo getChannelInfo(String channelName) {
+        return channelsByName.get(channelName);
+    }
+
+    /**
+     * Gets a channel by id.
+     * @param channelId int - the channel id.
+     * @return  RadioChannelInfo - the found channel, else null.
+     */
+    public RadioChannelInfo getChannelInfo(int channelId) {
+        return channelsById.get(channelId);
+    }
+
+    /**
+     * Gets the time of the update that made the snapshot.
+     * @return  long - the update time in milliseconds.
+     */
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    /**
+     * Replaces fetched channels and episodes that are unchanged since this
+     * snapshot with this snapshot's objects, so unchanged rows keep their
+     * identity from one update to the next.
+     * @param channels  List - the fetched channels in display order.
+     * @return  List - the channels, unchanged ones from this snapshot.
+     */
+    public List<RadioChannelInfo> reuseUnchanged(
+            List<RadioChannelInfo> channels) {
+        List<RadioChannelInfo> reused = new ArrayList<RadioChannelInfo>();
+        for (RadioChannelInfo channelInfo : channels) {
+            reused.add(reuseUnchanged(channelInfo));
+        }
+        return reused;
+    }
+
+    /**
+     * Replaces a fetched channel, or its episodes, with this snapshot's
+     * objects where they are unchanged. Doing it again on the result gives
+     * the same object, so a channel can be reused when it is fetched and
+     * again when the update is published.
+     * @param channelInfo   RadioChannelInfo - the fetched channel.
+     * @return  RadioChannelInfo - the channel, this snapshot's if unchanged.
+     */
+    public RadioChannelInfo reuseUnchanged(RadioChannelInfo channelInfo) {
+        RadioChannelInfo old = channelsById.get(channelInfo.getId());
+        if (old == null && channelInfo.getName() != null) {
+            old = channelsByName.get(channelInfo.getName());
+        }
+        if (old == null) {
+            return channelInfo;
+        }
+        return reuseChannel(old, channelInfo);
+    }
+
+    /**
+     * Replaces a fetched channel's unchanged episodes with the old ones.
+     * @param old           RadioChannelInfo - the channel in this snapshot.
+     * @param channelInfo   RadioChannelInfo - the fetched channel.
+     * @return  RadioChannelInfo - the old channel if nothing changed, else
+     *                             the fetched channel with reused episodes,
+     *                             itself if no episodes were reused.
+     */
+    private static RadioChannelInfo reuseChannel(RadioChannelInfo old,
+            RadioChannelInfo channelInfo) {
+        List<RadioEpisodeInfo> episodes = channelInfo.getEpisodesInfoList();
+        List<RadioEpisodeInfo> oldEpisodes = old.getEpisodesInfoList();
+        List<RadioEpisodeInfo> reused = new ArrayList<RadioEpisodeInfo>();
+        boolean isChanged = episodes.size() != oldEpisodes.size() ||
+                !isSameChannel(old, channelInfo);
+        boolean isReused = false;
+        for (int i = 0; i < episodes.size(); i++) {
+            RadioEpisodeInfo episodeInfo = episodes.get(i);
+            RadioEpisodeInfo oldEpisode = old.getEpisodeInfo(
+                    episodeInfo.getTitle(), episodeInfo.getStartTime());
+            if (oldEpisode != null && oldEpisode != episodeInfo &&
+                isSameEpisode(oldEpisode, episodeInfo)) {
+                episodeInfo = oldEpisode;
+                isReused = true;
+            }
+            isChanged |= i >= oldEpisodes.size() ||
+                         oldEpisodes.get(i) != episodeInfo;
+            reused.add(episodeInfo);
+        }
+        if (!isChanged) {
+            return old;
+        }
+        if (!isReused) {
+            return channelInfo;
+        }
+        RadioChannelInfo copy = copyChannel(channelInfo);
+        for (RadioEpisodeInfo episodeInfo : reused) {
+            copy.addEpisodeInfo(episodeInfo);
+        }
+        return copy;
+    }
+
+    /**
+     * Checks if two channels have the same shown information.
+     * @param a RadioChannelInfo - a channel.
+     * @param b RadioChannelInfo - another channel.
+     * @return  boolean - true if the information is the same, else false.
+     */
+    private static boolean isSameChannel(RadioChannelInfo a,
+                                         RadioChannelInfo b) {
+        return a.getId() == b.getId() && a.isStale() == b.isStale() &&
+               Arrays.equals(a.getScheduleHash(), b.getScheduleHash()) &&
+               Objects.equals(a.getName(), b.getName()) &&
+               Objects.equals(a.getChannelType(), b.getChannelType()) &&
+               Objects.equals(a.getScheduleURL(), b.getScheduleURL());
+    }
+
+    /**
+     * Checks if two episodes have the same shown information.
+     * @param a RadioEpisodeInfo - an episode.
+     * @param b RadioEpisodeInfo - another episode.
+     * @return  boolean - true if the information is the same, else false.
+     */
+    private static boolean isSameEpisode(RadioEpisodeInfo a,
+                                         RadioEpisodeInfo b) {
+        return a.getEpisodeId() == b.getEpisodeId() &&
+               a.getStartTime() == b.getStartTime() &&
+               a.getEndTime() == b.getEndTime() &&
+               Objects.equals(a.getTitle(), b.getTitle()) &&
+               Objects.equals(a.getDescription(), b.getDescription()) &&
+               Objects.equals(a.getImageURL(), b.getImageURL()) &&
+               Objects.equals(a.getStartTimeText(), b.getStartTimeText()) &&
+               Objects.equals(a.getEndTimeText(), b.getEndTimeText());
+    }
+
+    /**
+     * Creates a channel with the same information as another, without
+     * episodes.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @return  RadioChannelInfo - the copy.
+     */
+    static RadioChannelInfo copyChannel(RadioChannelInfo channelInfo) {
+        RadioChannelInfo copy = new RadioChannelInfo();
+        copy.setId(channelInfo.getId());
+        copy.setName(channelInfo.getName());
+        copy.setChannelType(channelInfo.getChannelType());
+        copy.setScheduleURL(channelInfo.getScheduleURL());
+        copy.setStale(channelInfo.isStale());
+        copy.setScheduleHash(channelInfo.getScheduleHash());
+        return copy;
+    }
+
+    /**
+     * Creates a snapshot where one channel is replaced by a newer fetch of
+     * the same channel. Unchanged episodes keep this snapshot's objects, this
+     * snapshot is not changed.
+     * @param channelInfo   RadioChannelInfo - the fetched channel.
+     * @return  RadioInfoSnapshot - the new snapshot, this snapshot if the
+     *                              channel is not in it or unchanged.
+     */
+    public RadioInfoSnapshot withChannel(RadioChannelInfo channelInfo) {
+        RadioChannelInfo old = channelsById.get(channelInfo.getId());
+        if (old == null) {
+            return this;
+        }
+        RadioChannelInfo reused = reuseChannel(old, channelInfo);
+        if (reused == old) {
+            return this;
+        }
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        for (RadioChannelInfo info : channelInfoList) {
+            channels.add(info == old ? reused : info);
+        }
+        return new RadioInfoSnapshot(channels, updateTime);
+    }
+
+    /**
+     * Creates a snapshot where the episodes playing right now are patched
+     * into the channels. Channels without changed episodes are shared with
+     * this snapshot, this snapshot is not changed.
+     * @param nowPlaying    List - channels holding their current and next
+     *                             episode.
+     * @param updateTime    long - the time episodes are compared to, in
+     *                             milliseconds.
+     * @return  RadioInfoSnapshot - the patched snapshot.
+     */
+    public RadioInfoSnapshot withNowPlaying(List<RadioChannelInfo> nowPlaying,
+                                           long updateTime) {
+        Map<Integer, RadioChannelInfo> playingById;
+        playingById = new HashMap<Integer, RadioChannelInfo>();
+        for (RadioChannelInfo nowInfo : nowPlaying) {
+            if (!playingById.containsKey(nowInfo.getId())) {
+                playingById.put(nowInfo.getId(), nowInfo);
+            }
+        }
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        for (RadioChannelInfo channelInfo : channelInfoList) {
+            RadioChannelInfo playing = playingById.get(channelInfo.getId());
+            if (playing == null) {
+                channels.add(channelInfo);
+            } else {
+                channels.add(patchChannel(channelInfo,
+                                          playing.getEpisodesInfoList()));
+            }
+        }
+        return new RadioInfoSnapshot(channels, updateTime);
+    }
+
+    /**
+     * Patches episodes into a channel. Episodes overlapping a patched
+     * episode are replaced by it.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @param episodes      List - the episodes to patch in.
+     * @return  RadioChannelInfo - the channel itself if no episode changed,
+     *                             else a patched copy.
+     */
+    private static RadioChannelInfo patchChannel(RadioChannelInfo channelInfo,
+            List<RadioEpisodeInfo> episodes) {
+        boolean isChanged = false;
+        for (RadioEpisodeInfo episodeInfo : episodes) {
+            RadioEpisodeInfo old = channelInfo.getEpisodeInfo(
+                    episodeInfo.getTitle(), episodeInfo.getStartTime());
+            if (old == null || old.getEndTime() != episodeInfo.getEndTime()) {
+                isChanged = true;
+            }
+        }
+        if (!isChanged) {
+            return channelInfo;
+        }
+        List<RadioEpisodeInfo> patched = new ArrayList<RadioEpisodeInfo>();
+        for (RadioEpisodeInfo old : channelInfo.getEpisodesInfoList()) {
+            boolean isReplaced = false;
+            for (RadioEpisodeInfo episodeInfo : episodes) {
+                if (old.getStartTime() < episodeInfo.getEndTime() &&
+                    episodeInfo.getStartTime() < old.getEndTime()) {
+                    isReplaced = true;
+                }
+            }
+            if (!isReplaced) {
+                patched.add(old);
+            }
+        }
+        patched.addAll(episodes);
+        Collections.sort(patched, new Comparator<RadioEpisodeInfo>() {
+            @Override
+            public int compare(RadioEpisodeInfo a, RadioEpisodeInfo b) {
+                return Long.compare(a.getStartTime(), b.getStartTime());
+            }
+        });
+        RadioChannelInfo copy = copyChannel(channelInfo);
+        for (RadioEpisodeInfo episodeInfo : patched) {
+            copy.addEpisodeInfo(episodeInfo);
+        }
+        return copy;
+    }
+}
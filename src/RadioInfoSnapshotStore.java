@@ -0,0 +1,208 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that represents the store for the last published snapshot. The
+ * snapshot is written to a compact binary file after each update and read
+ * back whole at start, so the tables can be filled before the first update
+ * has finished. The file is not kept open or mapped after it is read, so it
+ * can be replaced while the program runs.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoSnapshotStore {
+
+    private static final int MAGIC = 0x52414449;    //File marker, "RADI".
+    private static final int VERSION = 2;           //File format version.
+    private final File file;    //The snapshot file.
+
+    /**
+     * Constructor for the snapshot store. The file is read from the system
+     * property "radioinfo.snapshot.file".
+     */
+    public RadioInfoSnapshotStore() {
+        this(new File(System.getProperty("radioinfo.snapshot.file",
+                      System.getProperty("user.home") + File.separator +
+                      ".radioinfo" + File.separator + "snapshot.bin")));
+    }
+
+    /**
+     * Constructor for the snapshot store. Takes the snapshot file as
+     * parameter.
+     * @param file  File - the snapshot file.
+     */
+    public RadioInfoSnapshotStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Writes a snapshot to the file. The file is replaced in one step, so a
+     * half written snapshot is never read.
+     * @param snapshot  RadioInfoSnapshot - the snapshot.
+     * @throws IOException
+     */
+    public void save(RadioInfoSnapshot snapshot) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        directory.mkdirs();
+        File temp = File.createTempFile("snapshot", ".tmp", directory);
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                writeSnapshot(out, snapshot);
+            } finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Reads the snapshot from the file.
+     * @return  RadioInfoSnapshot - the snapshot, null if there is no
+     *                              readable snapshot.
+     */
+    public RadioInfoSnapshot load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return readSnapshot(ByteBuffer.wrap(
+                    Files.readAllBytes(file.toPath())));
+        } catch (IOException e) {
+            return null;
+        } catch (BufferUnderflowException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot.
+     * @param out       DataOutputStream - the stream.
+     * @param snapshot  RadioInfoSnapshot - the snapshot.
+     * @throws IOException
+     */
+    private void writeSnapshot(DataOutputStream out,
+                               RadioInfoSnapshot snapshot)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(snapshot.getUpdateTime());
+        List<RadioChannelInfo> channels = snapshot.getChannelInfoList();
+        out.writeInt(channels.size());
+        for (RadioChannelInfo channelInfo : channels) {
+            out.writeInt(channelInfo.getId());
+            writeString(out, channelInfo.getName());
+            writeString(out, channelInfo.getChannelType());
+            writeString(out, channelInfo.getScheduleURL());
+            out.writeBoolean(channelInfo.isStale());
+            List<RadioEpisodeInfo> episodes;
+            episodes = channelInfo.getEpisodesInfoList();
+            out.writeInt(episodes.size());
+            for (RadioEpisodeInfo episodeInfo : episodes) {
+                out.writeLong(episodeInfo.getEpisodeId());
+                writeString(out, episodeInfo.getTitle());
+                writeString(out, episodeInfo.getDescription());
+                writeString(out, episodeInfo.getStartTimeUTC());
+                writeString(out, episodeInfo.getEndTimeUTC());
+                out.writeLong(episodeInfo.getStartTime());
+                out.writeLong(episodeInfo.getEndTime());
+                writeString(out, episodeInfo.getStartTimeText());
+                writeString(out, episodeInfo.getEndTimeText());
+                writeString(out, episodeInfo.getImageURL());
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     * @param in    ByteBuffer - the file contents.
+     * @return  RadioInfoSnapshot - the snapshot, null if the file is not a
+     *                              snapshot of this version.
+     */
+    private RadioInfoSnapshot readSnapshot(ByteBuffer in) {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            return null;
+        }
+        long updateTime = in.getLong();
+        int channelCount = in.getInt();
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        for (int i = 0; i < channelCount; i++) {
+            RadioChannelInfo channelInfo = new RadioChannelInfo();
+            channelInfo.setId(in.getInt());
+            channelInfo.setName(readString(in));
+            channelInfo.setChannelType(readString(in));
+            channelInfo.setScheduleURL(readString(in));
+            channelInfo.setStale(in.get() != 0);
+            int episodeCount = in.getInt();
+            for (int j = 0; j < episodeCount; j++) {
+                long episodeId = in.getLong();
+                RadioEpisodeInfo episodeInfo;
+                episodeInfo = new RadioEpisodeInfo(readString(in));
+                episodeInfo.setEpisodeId(episodeId);
+                episodeInfo.setDescription(readString(in));
+                episodeInfo.setStartTimeUTC(readString(in));
+                episodeInfo.setEndTimeUTC(readString(in));
+                episodeInfo.setStartTime(in.getLong());
+                episodeInfo.setEndTime(in.getLong());
+                episodeInfo.setStartTimeText(readString(in));
+                episodeInfo.setEndTimeText(readString(in));
+                episodeInfo.setImageURL(readString(in));
+                channelInfo.addEpisodeInfo(episodeInfo);
+            }
+            channels.add(channelInfo);
+        }
+        return new RadioInfoSnapshot(channels, updateTime);
+    }
+
+    /**
+     * Writes a string that may be null, as a length and UTF-8 bytes.
+     * @param out   DataOutputStream - the stream.
+     * @param text  String - the string.
+     * @throws IOException
+     */
+    private void writeString(DataOutputStream out, String text)
+            throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString.
+     * @param in    ByteBuffer - the file contents.
+     * @return  String - the string, may be null.
+     */
+    private String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Corrupt snapshot");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
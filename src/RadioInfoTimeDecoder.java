@@ -0,0 +1,87 @@
+/**
+ * Class that decodes the timestamps used by the radio api. The api always
+ * sends times in the fixed format yyyy-MM-dd'T'HH:mm:ss'Z' in UTC, so the
+ * digits are read straight into milliseconds since epoch. Nothing is
+ * allocated and no state is shared, so it can be used from any thread.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public final class RadioInfoTimeDecoder {
+
+    private static final int LENGTH = 20;   //Length of a timestamp.
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private RadioInfoTimeDecoder() {
+    }
+
+    /**
+     * Decodes a timestamp to milliseconds since epoch.
+     * @param time  CharSequence - the timestamp, yyyy-MM-dd'T'HH:mm:ss'Z'.
+     * @return  long - the time in milliseconds.
+     * @throws IllegalArgumentException if the timestamp is malformed.
+     */
+    public static long decode(CharSequence time) {
+        if (time == null || time.length() != LENGTH ||
+                time.charAt(4) != '-' || time.charAt(7) != '-' ||
+                time.charAt(10) != 'T' || time.charAt(13) != ':' ||
+                time.charAt(16) != ':' || time.charAt(19) != 'Z') {
+            throw new IllegalArgumentException("Malformed time: " + time);
+        }
+        int year = digits(time, 0, 4);
+        int month = digits(time, 5, 2);
+        int day = digits(time, 8, 2);
+        int hour = digits(time, 11, 2);
+        int minute = digits(time, 14, 2);
+        int second = digits(time, 17, 2);
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 ||
+                minute > 59 || second > 59) {
+            throw new IllegalArgumentException("Malformed time: " + time);
+        }
+        long days = daysFromCivil(year, month, day);
+        return days * MILLIS_PER_DAY +
+               ((hour * 60L + minute) * 60L + second) * 1000L;
+    }
+
+    /**
+     * Reads a number of decimal digits.
+     * @param time      CharSequence - the timestamp.
+     * @param start     int - index of the first digit.
+     * @param count     int - the amount of digits.
+     * @return  int - the number.
+     * @throws IllegalArgumentException if a character is not a digit.
+     */
+    private static int digits(CharSequence time, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = time.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Malformed time: " + time);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Counts the days from 1970-01-01 to a date in the proleptic Gregorian
+     * calendar.
+     * @param year  int - the year.
+     * @param month int - the month, 1-12.
+     * @param day   int - the day of month.
+     * @return  long - days since epoch.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        /* Count years from March so the leap day is last in the year. */
+        int y = (month <= 2) ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 +
+                        day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 +
+                       dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.Calendar;
+
+/**
+ * Class that represents the time span episodes are shown for, hours before
+ * and after the time of an update. Each update and each refresh of a
+ * channel has its own time span, so one can not move another's while its
+ * schedules are read.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoTimeSpan {
+
+    private final long updateTime;  //Time for update in milliseconds.
+    private final long beforeTime;  //Time before update in milliseconds.
+    private final long afterTime;   //Time after update in milliseconds.
+
+    /**
+     * Constructor for a time span. Takes the update time and the hours
+     * before and after it as parameters.
+     * @param updateTime    long - the update time in milliseconds.
+     * @param hoursBefore   int - hours before the update time.
+     * @param hoursAfter    int - hours after the update time.
+     */
+    public RadioInfoTimeSpan(long updateTime, int hoursBefore,
+                             int hoursAfter) {
+        Calendar updateTimeCalendar = Calendar.getInstance();
+        updateTimeCalendar.setTimeInMillis(updateTime);
+        this.updateTime = updateTime;
+
+        updateTimeCalendar.add(Calendar.HOUR_OF_DAY, -hoursBefore);
+        beforeTime = updateTimeCalendar.getTimeInMillis();
+
+        updateTimeCalendar.add(Calendar.HOUR_OF_DAY, hoursAfter + hoursBefore);
+        afterTime = updateTimeCalendar.getTimeInMillis();
+    }
+
+    /**
+     * Gets the update time.
+     * @return  long - the update time in milliseconds.
+     */
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    /**
+     * Gets the start of the time span.
+     * @return  long - the time before update in milliseconds.
+     */
+    public long getBeforeTime() {
+        return beforeTime;
+    }
+
+    /**
+     * Gets the end of the time span.
+     * @return  long - the time after update in milliseconds.
+     */
+    public long getAfterTime() {
+        return afterTime;
+    }
+
+    /**
+     * Checks if a start and end time is inside the time span.
+     * @param startTime long - the start time in milliseconds.
+     * @param endTime   long - the end time in milliseconds.
+     * @return  boolean - true if the times are inside the time span, else
+     *                    false.
+     */
+    public boolean contains(long startTime, long endTime) {
+        return endTime > beforeTime && startTime < afterTime;
+    }
+}
@@ -0,0 +1,31 @@
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Interface for the transport that sends the http requests. The http cache
+ * decides what to ask for, the transport only sends the request and reads
+ * the response.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public interface RadioInfoTransport {
+
+    /**
+     * Sends a GET request and reads the response's status and headers. The
+     * body is returned as a stream read from the connection, a compressed
+     * body is decompressed while it is read.
+     * @param address   String - the address.
+     * @param headers   Map - request headers by name.
+     * @return  RadioInfoHttpResponse - the response.
+     * @throws IOException
+     */
+    RadioInfoHttpResponse get(String address, Map<String, String> headers)
+            throws IOException;
+
+    /**
+     * Opens a connection to an address's host in the background, so the
+     * first real request can reuse it. Failures are ignored.
+     * @param address   String - an address on the host.
+     */
+    void warmUp(String address);
+}
@@ -0,0 +1,119 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Class that represents the transport built on url connections. Kept for
+ * systems where the java http client can not be used, connections are
+ * reused by the url connection's own keep-alive.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+public class RadioInfoURLConnectionTransport implements RadioInfoTransport {
+
+    private final int connectTimeout;   //Connect timeout in milliseconds.
+    /* Time in milliseconds to read a whole response, headers and body. */
+    private final int readTimeout;
+
+    /**
+     * Constructor for the transport. The read timeout bounds each read from
+     * the connection and the whole response as well.
+     * @param connectTimeout    int - connect timeout in milliseconds.
+     * @param readTimeout       int - time in milliseconds to read a whole
+     *                                response, headers and body.
+     */
+    public RadioInfoURLConnectionTransport(int connectTimeout,
+                                           int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public RadioInfoHttpResponse get(String address,
+                                     Map<String, String> headers)
+            throws IOException {
+        long start = System.nanoTime();
+        final URLConnection connection = new URL(address).openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        int status = HttpURLConnection.HTTP_OK;
+        if (connection instanceof HttpURLConnection) {
+            status = ((HttpURLConnection) connection).getResponseCode();
+        }
+        Map<String, String> values = new HashMap<String, String>();
+        for (Map.Entry<String, List<String>> header :
+                connection.getHeaderFields().entrySet()) {
+            if (header.getKey() != null && !header.getValue().isEmpty()) {
+                values.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            /* Read the rest so the connection can be reused. */
+            InputStream error = ((HttpURLConnection) connection).
+                    getErrorStream();
+            if (error != null) {
+                RadioInfoHttpCache.readAll(error);
+            }
+            return new RadioInfoHttpResponse(status, values, new byte[0], 0);
+        }
+        long left = readTimeout -
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final InputStream in = connection.getInputStream();
+        RadioInfoCountingInputStream wire = new RadioInfoCountingInputStream(
+                new RadioInfoDeadlineInputStream(in, left, new Closeable() {
+            @Override
+            public void close() throws IOException {
+                if (connection instanceof HttpURLConnection) {
+                    ((HttpURLConnection) connection).disconnect();
+                } else {
+                    in.close();
+                }
+            }
+        }));
+        InputStream body = wire;
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            try {
+                body = new GZIPInputStream(wire);
+            } catch (IOException e) {
+                wire.close();
+                throw e;
+            }
+        }
+        return new RadioInfoHttpResponse(status, values, body, wire);
+    }
+
+    @Override
+    public void warmUp(final String address) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    HttpURLConnection connection = (HttpURLConnection)
+                            new URL(address).openConnection();
+                    connection.setConnectTimeout(connectTimeout);
+                    connection.setReadTimeout(readTimeout);
+                    connection.setRequestMethod("HEAD");
+                    connection.getResponseCode();
+                } catch (IOException e) {
+                    /* Only a warm-up, the real request reports the error. */
+                } catch (ClassCastException e) {
+                    /* Not an http address, nothing to warm up. */
+                }
+            }
+        }, "RadioInfo-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -1,11 +1,9 @@
-import java.util.TimerTask;
-
 /**
- * Class that represents the timer task that updates information on a timer.
+ * Class that represents the task that updates information on a timer.
  * @author Johan Ahlqvist
  * 2017-12-04
  */
-public class RadioInfoUpdateTimer extends TimerTask {
+public class RadioInfoUpdateTimer implements Runnable {
 	
     private static RadioInfoController controller;  //The controller.
 
@@ -19,8 +17,6 @@ public class RadioInfoUpdateTimer extends TimerTask {
 
 	@Override
 	public void run() {
-		if (!controller.isUpdating()) {
-		    controller.runInfoUpdater();
-        }
+		controller.requestInfoUpdate();
 	}
 }
@@ -1,18 +1,23 @@
-import org.xml.sax.SAXException;
 import javax.swing.*;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 /**
- * Class that represents a swing worker.
+ * Class that represents a swing worker. Channels are shown one by one as
+ * their schedules are fetched, the complete update is published at the end.
  * @author Johan Ahlqvist
  * 2017-12-04
  */
-public class RadioInfoUpdateWorker extends SwingWorker<Boolean, Integer> {
+public class RadioInfoUpdateWorker extends
+        SwingWorker<Boolean, RadioInfoUpdateWorker.FetchedChannel> {
 
     private static RadioInfoController controller;  //The controller.
+    /* Statistics of this update. */
+    private final RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+    private int fetchedCount = 0;   //Amount of channels shown.
 
     /**
      * Constructor for swing worker. Takes a controller as parameter.
@@ -25,48 +30,94 @@ public class RadioInfoUpdateWorker extends SwingWorker<Boolean, Integer> {
 
     @Override
     protected Boolean doInBackground() throws Exception {
-        controller.setIsUpdating(true);
-
         try {
-            controller.getXMLParser().getRadioInfo(controller, this);
-        } catch (IOException e) {
-            controller.guiShowMessage(e.toString());
+            List<RadioChannelInfo> channels;
+            channels = controller.getXMLParser().getRadioInfo(controller, this,
+                                                              report);
+            /* If a newer update has superseded this one. */
+            if (!controller.startPublishing(this)) {
+                return false;
+            }
+            /* Publish the complete update in one step. */
+            controller.publishChannels(channels);
+            controller.saveSnapshot(report);
+        } catch (InterruptedIOException e) {
+            /* Cancelled by a newer update. */
             return false;
-        } catch (SAXException e) {
+        } catch (IOException e) {
             controller.guiShowMessage(e.toString());
             return false;
-        } catch (ParserConfigurationException e) {
+        } catch (XMLStreamException e) {
             controller.guiShowMessage(e.toString());
             return false;
         }
         return true;
     }
 
+    /**
+     * Gets the statistics of this update.
+     * @return  RadioInfoRefreshReport - the report.
+     */
+    public RadioInfoRefreshReport getReport() {
+        return report;
+    }
+
     public void createUpdateProgress(int totalValue) {
         controller.createProgressUpdate(totalValue);
     }
 
-    public void updateProgress(int value) {
-        publish(value);
+    /**
+     * Hands a channel with a complete schedule over to be shown. May be
+     * called from any thread.
+     * @param index         int - the channel's place in original order.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     */
+    public void channelFetched(int index, RadioChannelInfo channelInfo) {
+        publish(new FetchedChannel(index, channelInfo));
     }
 
     @Override
-    protected void process(List<Integer> chunks) {
-        int index = (chunks.size() - 1);
-        int returnValue = chunks.get(index);
-        controller.showProgressUpdate(returnValue);
+    protected void process(List<FetchedChannel> chunks) {
+        if (isCancelled()) {
+            return;
+        }
+        for (FetchedChannel fetched : chunks) {
+            controller.showFetchedChannel(fetched.index, fetched.channelInfo);
+        }
+        fetchedCount += chunks.size();
+        controller.showProgressUpdate(fetchedCount);
     }
 
     @Override
     protected void done() {
-        try {
-            Boolean returnValue = get();
-            controller.updateDone();
-        } catch (InterruptedException e) {
-            controller.guiShowMessage(e.toString());
-        } catch (ExecutionException e) {
-            controller.guiShowMessage(e.toString());
+        boolean isPublished = false;
+        if (!isCancelled()) {
+            try {
+                isPublished = get();
+            } catch (InterruptedException e) {
+                controller.guiShowMessage(e.toString());
+            } catch (ExecutionException e) {
+                controller.guiShowMessage(e.toString());
+            }
+        }
+        controller.updateFinished(this, isPublished);
+    }
+
+    /**
+     * A channel with a complete schedule and its place in original order.
+     */
+    static class FetchedChannel {
+        private final int index;                        //Original order.
+        private final RadioChannelInfo channelInfo;     //The channel.
+
+        /**
+         * Constructor for a fetched channel.
+         * @param index         int - the channel's place in original order.
+         * @param channelInfo   RadioChannelInfo - the channel.
+         */
+        private FetchedChannel(int index, RadioChannelInfo channelInfo) {
+            this.index = index;
+            this.channelInfo = channelInfo;
         }
-        controller.setIsUpdating(false);
     }
 }
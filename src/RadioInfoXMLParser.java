@@ -1,33 +1,135 @@
-import org.w3c.dom.*;
-import org.xml.sax.SAXException;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
-import java.net.URL;
-import java.net.URLConnection;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Class that represents the xml parser. Parses a xml gotten from a url
- * connection and saves the relevant information.
+ * connection and saves the relevant information. The xml is read as a stream
+ * so channels and episodes are created while reading, without building a
+ * document of the whole page.
  * @author Johan Ahlqvist
  * 2017-12-04
  */
 public class RadioInfoXMLParser {
-    private DocumentBuilderFactory docFactory;  //Document builder factory.
-    private DocumentBuilder docBuilder;         //Document builder.
-    private Document doc;                       //Document.
-    private URL url;                            //The url address.
-    private URLConnection urlConnection;        //The connection.
     private String xmlAddress;  //The xml address.
-    private int totalChannels;  //Total channels to be read.
+    /* Default amount of schedules fetched at the same time. */
+    private static final int DEFAULT_WORKER_COUNT = 8;
+    private final int workerCount;              //Schedule fetch workers.
+    private ThreadPoolExecutor scheduleExecutor;    //Fetches schedules.
+    private ExecutorService pageExecutor;       //Fetches further pages.
+    /* The page parameter in a page address. */
+    private static final Pattern PAGE_PARAMETER =
+            Pattern.compile("([?&]page=)(\\d+)");
+    private final RadioInfoHttpCache httpCache; //Cache for fetched pages.
+    /* Times a failed request is tried again. */
+    private final int retries = Integer.getInteger("radioinfo.retries", 2);
+    /* Delay in milliseconds before the first new try. */
+    private final long retryDelay = Long.getLong("radioinfo.retry.delay",
+                                                 500);
+    /* Schedule pages parsed in this update, by address. */
+    private Map<String, ParsedPage> parsedPages =
+            new HashMap<String, ParsedPage>();
+    /* Schedule pages parsed in the last update, by address. */
+    private Map<String, ParsedPage> lastParsedPages =
+            new HashMap<String, ParsedPage>();
+    /* Most episodes the api gives on one schedule page. */
+    private static final int SCHEDULE_PAGE_SIZE = 500;
+    /* Time zone of the api's date parameters. */
+    private static final TimeZone API_TIME_ZONE =
+            TimeZone.getTimeZone("Europe/Stockholm");
+    /* Stream reader factory, created once for each thread that parses. */
+    private static final ThreadLocal<XMLInputFactory> inputFactory =
+            new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            return factory;
+        }
+    };
 
     /**
-     * Constructor for the XML parser. Takes a xml address as parameter.
+     * Constructor for the XML parser. Takes a xml address as parameter. The
+     * amount of schedule workers is read from the system property
+     * "radioinfo.workers".
      * @param xmlAddress    String - the xml address.
      */
     public RadioInfoXMLParser(String xmlAddress) {
-            setXmlAddress(xmlAddress);
+        this(xmlAddress, Integer.getInteger("radioinfo.workers",
+                                            DEFAULT_WORKER_COUNT));
+    }
+
+    /**
+     * Constructor for the XML parser. Takes a xml address and the amount of
+     * channel schedules to fetch at the same time as parameters.
+     * @param xmlAddress    String - the xml address.
+     * @param workerCount   int - the amount of schedule workers.
+     */
+    public RadioInfoXMLParser(String xmlAddress, int workerCount) {
+        this(xmlAddress, workerCount, new RadioInfoHttpCache());
+    }
+
+    /**
+     * Constructor for the XML parser. Takes a xml address, the amount of
+     * channel schedules to fetch at the same time and the http cache pages
+     * are fetched through as parameters.
+     * @param xmlAddress    String - the xml address.
+     * @param workerCount   int - the amount of schedule workers.
+     * @param httpCache     RadioInfoHttpCache - the http cache.
+     */
+    public RadioInfoXMLParser(String xmlAddress, int workerCount,
+                              RadioInfoHttpCache httpCache) {
+        setXmlAddress(xmlAddress);
+        this.workerCount = Math.max(1, workerCount);
+        this.httpCache = httpCache;
+    }
+
+    /**
+     * Gets the http cache pages are fetched through.
+     * @return  RadioInfoHttpCache - the http cache.
+     */
+    public RadioInfoHttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    /**
+     * Gets the amount of channel schedules fetched at the same time.
+     * @return  int - the amount of schedule workers.
+     */
+    public int getWorkerCount() {
+        return workerCount;
     }
 
     /**
@@ -47,230 +149,1279 @@ public class RadioInfoXMLParser {
     }
 
     /**
-     * Opens a url connection and parses the XML. Saves relevant data. Takes
-     * a controller and a swing worker as parameters.
+     * Opens a url connection and parses the XML. Takes a controller and a
+     * swing worker as parameters. Each channel is handed to the worker to be
+     * shown as soon as its schedule is complete, the list of all channels is
+     * returned when all of them are complete.
      * @param controller    RadioInfoController - the controller.
      * @param updateWorker  RadioInfoUpdateWorker - the swing worker.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @return  List - the channels in original order.
      * @throws IOException
-     * @throws SAXException
-     * @throws ParserConfigurationException
-     */
-    public void getRadioInfo(RadioInfoController controller,
-                             RadioInfoUpdateWorker updateWorker) throws
-                             IOException, SAXException,
-                             ParserConfigurationException {
-        /* Open a url connection. */
-        url = new URL(xmlAddress);
-        urlConnection = url.openConnection();
-        /* Build document for parsing. */
-        docFactory = DocumentBuilderFactory.newInstance();
-        docBuilder = docFactory.newDocumentBuilder();
-        doc = docBuilder.parse(urlConnection.getInputStream());
-        doc.getDocumentElement().normalize();
-
-        /* Get information about amount of data to read. */
-        String elementTagName = "pagination";
-        NodeList pageInfo = doc.getElementsByTagName(elementTagName);
-        String pageAmount = getElementContent((Element) pageInfo.item(0),
-                                              "totalpages", 0);
-        int pages = Integer.parseInt(pageAmount);
-
-        String totalAmount = getElementContent((Element) pageInfo.item(0),
-                                               "totalhits", 0);
-        int totalHits = Integer.parseInt(totalAmount);
+     * @throws XMLStreamException
+     */
+    public List<RadioChannelInfo> getRadioInfo(RadioInfoController controller,
+                             RadioInfoUpdateWorker updateWorker,
+                             RadioInfoRefreshReport report) throws
+                             IOException, XMLStreamException {
+        startParsedPages();
+        RadioInfoTimeSpan timeSpan = controller.getTimeSpan();
+        /* The channels' pending schedules in original order. */
+        List<Future<RadioChannelInfo>> schedules;
+        schedules = new ArrayList<Future<RadioChannelInfo>>();
+
+        /* Read the first page of channels. */
+        List<RadioChannelInfo> pageChannels;
+        pageChannels = new ArrayList<RadioChannelInfo>();
+        PageInfo pageInfo = readChannelPage(xmlAddress, pageChannels,
+                                            report);
+
         /* Create progress updater */
-        updateWorker.createUpdateProgress(totalHits);
-        totalChannels = 0;
-        updateWorker.updateProgress(totalChannels);
-        String nextPageURL = null;
-
-        /* If more than one page of information, get next page address. */
-        if (pages > 1) {
-            nextPageURL = getElementContent((Element) pageInfo.item(0),
-                                            "nextpage", 0);
-        }
-
-        /* Get channel elements. */
-        elementTagName = "channel";
-        NodeList channelList = doc.getElementsByTagName(elementTagName);
-        getChannelElements(channelList, controller, updateWorker);
-        /* If the are more than one page, get information from next pages. */
-        if (pages > 1) {
-            for (int page = 2; page <= pages; page++) {
-                url = new URL(nextPageURL);
-                urlConnection = url.openConnection();
-
-                docFactory = DocumentBuilderFactory.newInstance();
-                docBuilder = docFactory.newDocumentBuilder();
-                doc = docBuilder.parse(urlConnection.getInputStream());
-                doc.getDocumentElement().normalize();
-                /* If the are more pages, get next address. */
-                if (page < pages) {
-                    elementTagName = "pagination";
-                    pageInfo = doc.getElementsByTagName(elementTagName);
-                    nextPageURL = getElementContent((Element)
-                                                    pageInfo.item(0),
-                                                    "nextpage", 0);
+        updateWorker.createUpdateProgress(pageInfo.totalHits);
+        getChannelSchedules(pageChannels, schedules, timeSpan, controller,
+                            updateWorker, report);
+
+        /* If the are more than one page, get all next pages at the same
+         * time and handle them in page order.
+         */
+        List<String> addresses = getPageAddresses(pageInfo);
+        if (addresses != null) {
+            List<Future<List<RadioChannelInfo>>> pages;
+            pages = new ArrayList<Future<List<RadioChannelInfo>>>();
+            for (String address : addresses) {
+                pages.add(submitChannelPage(address, report));
+            }
+            try {
+                for (Future<List<RadioChannelInfo>> page : pages) {
+                    getChannelSchedules(waitFor(page), schedules, timeSpan,
+                                        controller, updateWorker, report);
                 }
-                /* Get channel elements. */
-                elementTagName = "channel";
-                channelList = doc.getElementsByTagName(elementTagName);
-                getChannelElements(channelList, controller, updateWorker);
+            } catch (IOException e) {
+                cancelAll(pages);
+                cancelAll(schedules);
+                throw e;
+            } catch (XMLStreamException e) {
+                cancelAll(pages);
+                cancelAll(schedules);
+                throw e;
+            }
+        } else {
+            /* Page addresses unknown, follow the next page links. */
+            int pages = pageInfo.totalPages;
+            for (int page = 2; page <= pages && pageInfo.nextPage != null;
+                 page++) {
+                pageChannels = new ArrayList<RadioChannelInfo>();
+                pageInfo = readChannelPage(pageInfo.nextPage, pageChannels,
+                                           report);
+                getChannelSchedules(pageChannels, schedules, timeSpan,
+                                    controller, updateWorker, report);
             }
         }
+        /* Wait for the schedules, the channels are in original order. */
+        return waitForAll(schedules);
     }
 
     /**
-     * Parses through channel elements and saves relevant information.
-     * @param channelList   NodeList - list of nodes.
+     * Gets the current and next episode of every channel in one request.
+     * @param address       String - the address to the api's episodes
+     *                               playing right now.
      * @param controller    RadioInfoController - the controller.
-     * @param updateWorker  RadioInfoUpdateWorker - the swing worker.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @return  List - channels holding only their current and next episode.
      * @throws IOException
-     * @throws ParserConfigurationException
-     * @throws SAXException
-     */
-    private void getChannelElements(NodeList channelList,
-                                    RadioInfoController controller,
-                                    RadioInfoUpdateWorker updateWorker)
-            throws IOException, ParserConfigurationException, SAXException {
-
-        /* Check each node. */
-        for (int i = 0; i < channelList.getLength(); i++) {
-            Node channelNode = channelList.item(i);
-            if (channelNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element channelElem = (Element) channelNode;
-                RadioChannelInfo channelInfo = new RadioChannelInfo();
-
-                String name = channelElem.getAttribute("name");
-                channelInfo.setName(name);
-
-                String channelType = getElementContent(channelElem,
-                                                       "channeltype", 0);
-                channelInfo.setChannelType(channelType);
-
-                String scheduleURL = getElementContent(channelElem,
-                                                       "scheduleurl", 0);
-                /* If there is scheduled episodes. */
-                if (scheduleURL != null) {
-                    url = new URL(scheduleURL);
-                    urlConnection = url.openConnection();
-
-                    docFactory = DocumentBuilderFactory.newInstance();
-                    docBuilder = docFactory.newDocumentBuilder();
-                    doc = docBuilder.parse(urlConnection.getInputStream());
-                    doc.getDocumentElement().normalize();
-                    /* Get amount of episode pages. */
-                    String elemTagName = "pagination";
-                    NodeList pageInfo = doc.getElementsByTagName(elemTagName);
-                    String pageAmount = getElementContent((Element)
-                                                          pageInfo.item(0),
-                                                          "totalpages", 0);
-                    int pages = Integer.parseInt(pageAmount);
-                    String nextPageURL = null;
-                    /* Get next page if exist. */
-                    if (pages > 1) {
-                        nextPageURL = getElementContent((Element)
-                                                        pageInfo.item(0),
-                                                        "nextpage", 0);
-                    }
-                    /* Get the episode elements. */
-                    elemTagName = "scheduledepisode";
-                    NodeList episodeList;
-                    episodeList = doc.getElementsByTagName(elemTagName);
-                    getEpisodeElements(episodeList, channelInfo, controller);
-                    /* Go through next pages if there's more than one. */
-                    if (pages > 1) {
-                        for (int page = 2; page <= pages; page++) {
-                            url = new URL(nextPageURL);
-                            urlConnection = url.openConnection();
-
-                            docFactory = DocumentBuilderFactory.newInstance();
-                            docBuilder = docFactory.newDocumentBuilder();
-                            doc = docBuilder.parse(urlConnection.
-                                                   getInputStream());
-
-                            doc.getDocumentElement().normalize();
-                            if (page < pages) {
-                                elemTagName = "pagination";
-                                pageInfo = doc.getElementsByTagName
-                                           (elemTagName);
-                                nextPageURL = getElementContent((Element)
-                                              pageInfo.item(0),
-                                              "nextpage", 0);
-                            }
-                            /* Get episode elements. */
-                            elemTagName = "scheduledepisode";
-                            episodeList = doc.getElementsByTagName(elemTagName);
-                            getEpisodeElements(episodeList, channelInfo,
-                                               controller);
+     * @throws XMLStreamException
+     */
+    public List<RadioChannelInfo> getNowPlaying(String address,
+            final RadioInfoController controller,
+            final RadioInfoRefreshReport report)
+            throws IOException, XMLStreamException {
+        return readPage(address, RadioInfoResourceType.NOW_PLAYING, report,
+                        new PageReader<List<RadioChannelInfo>>() {
+            @Override
+            public List<RadioChannelInfo> read(RadioInfoHttpCache.Body in)
+                    throws IOException, XMLStreamException {
+                List<RadioChannelInfo> channels;
+                channels = new ArrayList<RadioChannelInfo>();
+                XMLStreamReader reader = createReader(in);
+                try {
+                    while (reader.hasNext()) {
+                        if (reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "channel".equals(reader.getLocalName())) {
+                            channels.add(readNowPlaying(reader, controller,
+                                                        report));
                         }
                     }
+                    in.readToEnd();
+                } finally {
+                    reader.close();
+                }
+                return channels;
+            }
+        });
+    }
+
+    /**
+     * Gets the episodes playing right now on the page executor, so the
+     * request and its retries do not hold up the caller's thread. The
+     * channels are handed to the controller when done, an error is handed
+     * over instead if the request fails.
+     * @param address       String - the address to the api's episodes
+     *                               playing right now.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the request's report.
+     * @return  Future - the pending request.
+     */
+    public Future<?> submitNowPlaying(final String address,
+                                      final RadioInfoController controller,
+                                      final RadioInfoRefreshReport report) {
+        return getPageExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    controller.nowPlayingLoaded(getNowPlaying(address,
+                            controller, report));
+                } catch (InterruptedIOException e) {
+                    /* Stopped, nothing to show. */
+                } catch (IOException e) {
+                    controller.nowPlayingFailed(e);
+                } catch (XMLStreamException e) {
+                    controller.nowPlayingFailed(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Builds the addresses to pages 2 and up from the first page. The api's
+     * page addresses only differ in their page parameter, so all of them are
+     * known once the first page has arrived.
+     * @param pageInfo  PageInfo - the first page's pagination.
+     * @return  List - the addresses in page order, empty if there is only
+     *                 one page, null if the addresses can not be built.
+     */
+    private List<String> getPageAddresses(PageInfo pageInfo) {
+        List<String> addresses = new ArrayList<String>();
+        if (pageInfo.totalPages <= 1 || pageInfo.nextPage == null) {
+            return addresses;
+        }
+        Matcher matcher = PAGE_PARAMETER.matcher(pageInfo.nextPage);
+        if (!matcher.find() || !"2".equals(matcher.group(2))) {
+            return null;
+        }
+        for (int page = 2; page <= pageInfo.totalPages; page++) {
+            addresses.add(pageInfo.nextPage.substring(0, matcher.start(2)) +
+                          page + pageInfo.nextPage.substring(matcher.end(2)));
+        }
+        return addresses;
+    }
+
+    /**
+     * Reads a page of channels on the page executor.
+     * @param address   String - the page address.
+     * @param report    RadioInfoRefreshReport - the update's report.
+     * @return  Future - the pending channels of the page.
+     */
+    private Future<List<RadioChannelInfo>> submitChannelPage(
+            final String address, final RadioInfoRefreshReport report) {
+        return getPageExecutor().submit(
+                new Callable<List<RadioChannelInfo>>() {
+            @Override
+            public List<RadioChannelInfo> call() throws Exception {
+                List<RadioChannelInfo> pageChannels;
+                pageChannels = new ArrayList<RadioChannelInfo>();
+                readChannelPage(address, pageChannels, report);
+                return pageChannels;
+            }
+        });
+    }
+
+    /**
+     * Reads a page of a schedule on the page executor. The list must not be
+     * used before the page is done.
+     * @param address       String - the page address.
+     * @param episodes      List - the list the read episodes are added to.
+     * @param timeSpan      RadioInfoTimeSpan - the time span.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @return  Future - the pending pagination of the page.
+     */
+    private Future<PageInfo> submitSchedulePage(
+            final String address, final List<RadioEpisodeInfo> episodes,
+            final RadioInfoTimeSpan timeSpan,
+            final RadioInfoController controller,
+            final RadioInfoRefreshReport report) {
+        return getPageExecutor().submit(new Callable<PageInfo>() {
+            @Override
+            public PageInfo call() throws Exception {
+                return readSchedulePage(address, episodes, timeSpan,
+                                        controller, report);
+            }
+        });
+    }
+
+    /**
+     * Waits for every pending task. If one of them fails the rest are
+     * cancelled and the cause is thrown.
+     * @param tasks List - the pending tasks.
+     * @param <T>   the task result type.
+     * @return  List - the results in task order.
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private <T> List<T> waitForAll(List<Future<T>> tasks)
+            throws IOException, XMLStreamException {
+        List<T> results = new ArrayList<T>();
+        try {
+            for (Future<T> task : tasks) {
+                results.add(waitFor(task));
+            }
+        } catch (IOException e) {
+            cancelAll(tasks);
+            throw e;
+        } catch (XMLStreamException e) {
+            cancelAll(tasks);
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Waits for a pending task and throws its cause if it failed.
+     * @param task  Future - the pending task.
+     * @param <T>   the task result type.
+     * @return  T - the result.
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private <T> T waitFor(Future<T> task)
+            throws IOException, XMLStreamException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.toString());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Cancels all pending tasks.
+     * @param tasks List - the pending tasks.
+     */
+    private void cancelAll(List<? extends Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Gets the executor that fetches channel schedules, creates it the first
+     * time. Waiting schedules are taken in priority order, so a channel with
+     * a higher priority does not wait behind the channels before it. The
+     * workers are started at once, else the first schedules would each
+     * start a worker of their own without passing the queue.
+     * @return  ThreadPoolExecutor - the schedule executor.
+     */
+    synchronized ThreadPoolExecutor getScheduleExecutor() {
+        if (scheduleExecutor == null) {
+            scheduleExecutor = new ThreadPoolExecutor(workerCount,
+                    workerCount, 0, TimeUnit.MILLISECONDS,
+                    new PriorityBlockingQueue<Runnable>(),
+                    createThreadFactory("RadioInfo-schedule-"));
+            scheduleExecutor.prestartAllCoreThreads();
+        }
+        return scheduleExecutor;
+    }
+
+    /**
+     * Gets the executor that fetches further pages, creates it the first
+     * time. Pages have their own executor since schedule workers wait for
+     * their pages, sharing one executor could leave no thread to fetch them.
+     * @return  ExecutorService - the page executor.
+     */
+    private synchronized ExecutorService getPageExecutor() {
+        if (pageExecutor == null) {
+            pageExecutor = createExecutor("RadioInfo-page-");
+        }
+        return pageExecutor;
+    }
+
+    /**
+     * Creates an executor with the configured amount of workers. The threads
+     * are daemons so they never keep the program alive.
+     * @param threadName    String - prefix for the thread names.
+     * @return  ExecutorService - the executor.
+     */
+    private ExecutorService createExecutor(final String threadName) {
+        return Executors.newFixedThreadPool(workerCount,
+                                            createThreadFactory(threadName));
+    }
+
+    /**
+     * Creates a factory for daemon threads with numbered names.
+     * @param threadName    String - prefix for the thread names.
+     * @return  ThreadFactory - the thread factory.
+     */
+    private static ThreadFactory createThreadFactory(final String threadName) {
+        final AtomicInteger threadCount = new AtomicInteger(0);
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, threadName +
+                                           threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Hands each channel's schedule to the schedule executor so schedules are
+     * fetched at the same time. Schedules are fetched in the controller's
+     * priority order, channels of the same priority in original order. When
+     * the controller loads schedules lazily, the channels get their episodes
+     * from the published snapshot instead and are shown at once. Each
+     * channel is shown as the published channel if it is unchanged, so it is
+     * the same object when the update is published.
+     * @param pageChannels      List - the channels read from one page.
+     * @param schedules         List - the pending schedules in original
+     *                                 order, the channels' results.
+     * @param timeSpan          RadioInfoTimeSpan - the update's time span.
+     * @param controller        RadioInfoController - the controller.
+     * @param updateWorker      RadioInfoUpdateWorker - the swing worker.
+     * @param report            RadioInfoRefreshReport - the update's report.
+     */
+    private void getChannelSchedules(List<RadioChannelInfo> pageChannels,
+                                     List<Future<RadioChannelInfo>> schedules,
+                                     final RadioInfoTimeSpan timeSpan,
+                                     final RadioInfoController controller,
+                                     final RadioInfoUpdateWorker
+                                     updateWorker,
+                                     final RadioInfoRefreshReport report) {
+        final boolean isLazy = controller.isLazySchedules();
+        for (final RadioChannelInfo channelInfo : pageChannels) {
+            final int index = schedules.size();
+            ScheduleTask<RadioChannelInfo> schedule;
+            schedule = new ScheduleTask<RadioChannelInfo>(
+                    controller.getFetchPriority(channelInfo),
+                    new Callable<RadioChannelInfo>() {
+                @Override
+                public RadioChannelInfo call() throws Exception {
+                    if (isLazy) {
+                        copyLastSchedule(channelInfo, controller);
+                    } else {
+                        fetchSchedule(channelInfo, timeSpan, controller,
+                                      report);
+                    }
+                    RadioInfoSnapshot published = controller.getSnapshot();
+                    RadioChannelInfo reused;
+                    reused = published.reuseUnchanged(channelInfo);
+                    /* Show the channel and update progress. */
+                    updateWorker.channelFetched(index, reused);
+                    return reused;
                 }
-                /* Add channel information to list. */
-                controller.getChannelInfoList().add(channelInfo);
-                totalChannels++;
-                /* Update progress. */
-                updateWorker.updateProgress(totalChannels);
+            });
+            schedules.add(schedule);
+            if (isLazy) {
+                schedule.run();
+            } else {
+                /* Fetch the schedule in the background. */
+                getScheduleExecutor().execute(schedule);
             }
         }
     }
 
     /**
-     * Gets information from episode elements.
-     * @param episodeList   NodeList - list with episode nodes.
+     * Fetches the schedule of a published channel on the schedule executor.
+     * The published channel is not changed, a copy gets the fetched episodes
+     * and is handed to the controller when done.
+     * @param channelInfo   RadioChannelInfo - the published channel.
+     * @param timeSpan      RadioInfoTimeSpan - the time span to fetch.
+     * @param priority      int - the priority, lowest is fetched first.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @return  Future - the pending channel with its schedule.
+     */
+    public Future<RadioChannelInfo> submitSchedule(
+            RadioChannelInfo channelInfo, RadioInfoTimeSpan timeSpan,
+            int priority, RadioInfoController controller,
+            RadioInfoRefreshReport report) {
+        return submitSchedule(channelInfo, timeSpan, priority, controller,
+                              report, null);
+    }
+
+    /**
+     * Fetches the schedule of a published channel on the schedule executor
+     * and runs a task when the fetch is done, also if it failed. The task
+     * is not run if the fetch is cancelled before it starts.
+     * @param channelInfo   RadioChannelInfo - the published channel.
+     * @param timeSpan      RadioInfoTimeSpan - the time span to fetch.
+     * @param priority      int - the priority, lowest is fetched first.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @param whenDone      Runnable - run when done, may be null.
+     * @return  Future - the pending channel with its schedule.
+     */
+    public Future<RadioChannelInfo> submitSchedule(
+            RadioChannelInfo channelInfo, final RadioInfoTimeSpan timeSpan,
+            int priority, final RadioInfoController controller,
+            final RadioInfoRefreshReport report, final Runnable whenDone) {
+        final RadioChannelInfo copy = RadioInfoSnapshot.copyChannel(
+                channelInfo);
+        ScheduleTask<RadioChannelInfo> schedule;
+        schedule = new ScheduleTask<RadioChannelInfo>(priority,
+                new Callable<RadioChannelInfo>() {
+            @Override
+            public RadioChannelInfo call() throws Exception {
+                try {
+                    fetchSchedule(copy, timeSpan, controller, report);
+                    controller.scheduleLoaded(copy, report);
+                    return copy;
+                } finally {
+                    if (whenDone != null) {
+                        whenDone.run();
+                    }
+                }
+            }
+        });
+        getScheduleExecutor().execute(schedule);
+        return schedule;
+    }
+
+    /**
+     * Moves a schedule that is still waiting on the schedule executor first
+     * in line.
+     * @param schedule  Future - a schedule from submitSchedule.
+     * @return  boolean - true if it was moved, false if it has already
+     *                    started.
+     */
+    public boolean prioritize(Future<RadioChannelInfo> schedule) {
+        if (!(schedule instanceof ScheduleTask)) {
+            return false;
+        }
+        ScheduleTask<RadioChannelInfo> task;
+        task = (ScheduleTask<RadioChannelInfo>) schedule;
+        ThreadPoolExecutor executor = getScheduleExecutor();
+        /* Only a waiting task can be removed, it is queued again. */
+        if (!executor.remove(task)) {
+            return false;
+        }
+        task.priority = 0;
+        executor.execute(task);
+        return true;
+    }
+
+    /**
+     * Fetches a channel's schedule if it has one. A channel whose schedule
+     * can not be fetched keeps its schedule from the last update and is
+     * marked as stale, the error is added to the report. A stale channel
+     * whose schedule is fetched is no longer stale.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @param timeSpan      RadioInfoTimeSpan - the time span to fetch.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @throws InterruptedIOException
+     */
+    private void fetchSchedule(RadioChannelInfo channelInfo,
+                               RadioInfoTimeSpan timeSpan,
+                               RadioInfoController controller,
+                               RadioInfoRefreshReport report)
+            throws InterruptedIOException {
+        /* If there is scheduled episodes. */
+        if (channelInfo.getScheduleURL() == null) {
+            return;
+        }
+        try {
+            getScheduleElements(channelInfo, timeSpan, controller, report);
+            channelInfo.setStale(false);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            keepLastSchedule(channelInfo, controller, report, e);
+        } catch (XMLStreamException e) {
+            keepLastSchedule(channelInfo, controller, report, e);
+        }
+    }
+
+    /**
+     * Gives a channel whose schedule failed its episodes from the published
+     * snapshot and marks it as stale.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @param error         Exception - why the schedule failed.
+     */
+    private void keepLastSchedule(RadioChannelInfo channelInfo,
+                                  RadioInfoController controller,
+                                  RadioInfoRefreshReport report,
+                                  Exception error) {
+        report.addError(channelInfo.getName() + ": " + error);
+        channelInfo.setStale(true);
+        copyLastSchedule(channelInfo, controller);
+    }
+
+    /**
+     * Gives a channel the episodes and schedule hash of the same channel in
+     * the published snapshot, if it is there.
+     * @param channelInfo   RadioChannelInfo - the channel.
+     * @param controller    RadioInfoController - the controller.
+     */
+    private void copyLastSchedule(RadioChannelInfo channelInfo,
+                                  RadioInfoController controller) {
+        RadioChannelInfo last = controller.getSnapshot().getChannelInfo(
+                channelInfo.getId());
+        if (last != null) {
+            for (RadioEpisodeInfo episodeInfo : last.getEpisodesInfoList()) {
+                channelInfo.addEpisodeInfo(episodeInfo);
+            }
+            channelInfo.setScheduleHash(last.getScheduleHash());
+        }
+    }
+
+    /**
+     * Fetches a channel's schedule and saves the episodes to the channel.
+     * Only the dates of the time span are requested, with as
+     * many episodes on each page as the api allows. When the first page has
+     * arrived the rest of the pages are fetched at the same time and added
+     * in page order. The episodes come in start time order, so no pages are
+     * used after one with an episode starting after the time span. The
+     * channel gets the hash of the pages used, so a change on the server can
+     * be told from episodes leaving the time span.
      * @param channelInfo   RadioChannelInfo - the channel information.
+     * @param timeSpan      RadioInfoTimeSpan - the time span to fetch.
      * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @throws IOException
+     * @throws XMLStreamException
      */
-    private void getEpisodeElements(NodeList episodeList,
-                                   RadioChannelInfo channelInfo,
-                                   RadioInfoController controller) {
-        /* Check each episode. */
-        for (int j = 0; j < episodeList.getLength(); j++) {
-            Element episodeElement = (Element) episodeList.item(j);
+    private void getScheduleElements(RadioChannelInfo channelInfo,
+                                     RadioInfoTimeSpan timeSpan,
+                                     RadioInfoController controller,
+                                     RadioInfoRefreshReport report)
+            throws IOException, XMLStreamException {
+        List<RadioEpisodeInfo> episodes = new ArrayList<RadioEpisodeInfo>();
+        String address = getScheduleAddress(channelInfo.getScheduleURL(),
+                                            timeSpan);
+        List<byte[]> hashes = new ArrayList<byte[]>();
+        PageInfo pageInfo = readSchedulePage(address, episodes, timeSpan,
+                                             controller, report);
+        hashes.add(pageInfo.hash);
+        List<String> addresses = getPageAddresses(pageInfo);
+        if (pageInfo.isPastTimeSpan) {
+            /* The rest of the pages are after the time span. */
+        } else if (addresses != null) {
+            List<Future<PageInfo>> pages = new ArrayList<Future<PageInfo>>();
+            List<List<RadioEpisodeInfo>> pageEpisodes;
+            pageEpisodes = new ArrayList<List<RadioEpisodeInfo>>();
+            for (String pageAddress : addresses) {
+                List<RadioEpisodeInfo> page = new ArrayList<RadioEpisodeInfo>();
+                pageEpisodes.add(page);
+                pages.add(submitSchedulePage(pageAddress, page, timeSpan,
+                                             controller, report));
+            }
+            try {
+                for (int i = 0; i < pages.size(); i++) {
+                    pageInfo = waitFor(pages.get(i));
+                    hashes.add(pageInfo.hash);
+                    episodes.addAll(pageEpisodes.get(i));
+                    if (pageInfo.isPastTimeSpan) {
+                        cancelAll(pages);
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                cancelAll(pages);
+                throw e;
+            } catch (XMLStreamException e) {
+                cancelAll(pages);
+                throw e;
+            }
+        } else {
+            /* Page addresses unknown, follow the next page links. */
+            int pages = pageInfo.totalPages;
+            for (int page = 2; page <= pages && pageInfo.nextPage != null &&
+                               !pageInfo.isPastTimeSpan; page++) {
+                pageInfo = readSchedulePage(pageInfo.nextPage, episodes,
+                                            timeSpan, controller, report);
+                hashes.add(pageInfo.hash);
+            }
+        }
+        for (RadioEpisodeInfo episodeInfo : episodes) {
+            channelInfo.addEpisodeInfo(episodeInfo);
+        }
+        channelInfo.setScheduleHash(getScheduleHash(hashes));
+    }
 
-            String title = getElementContent(episodeElement, "title", 0);
+    /**
+     * Hashes the hashes of a schedule's pages in page order.
+     * @param hashes    List - the hashes of the pages.
+     * @return  byte[] - the schedule's hash, null if a page's is unknown.
+     */
+    private static byte[] getScheduleHash(List<byte[]> hashes) {
+        MessageDigest digest = RadioInfoHttpCache.createDigest();
+        for (byte[] hash : hashes) {
+            if (hash == null) {
+                return null;
+            }
+            digest.update(hash);
+        }
+        return digest.digest();
+    }
 
-            String description = getElementContent(episodeElement,
-                                                   "description", 0);
+    /**
+     * Adds a time span to a schedule address. The api takes whole dates in
+     * Swedish time, so the episodes are still checked against the time span
+     * while reading. The api only gives episodes starting on the dates asked
+     * for, so the day before the time span is asked for too, for an episode
+     * that started before midnight and is still playing when the span
+     * starts.
+     * @param scheduleURL   String - the channel's schedule address.
+     * @param timeSpan      RadioInfoTimeSpan - the time span.
+     * @return  String - the address to the schedule inside the time span.
+     */
+    static String getScheduleAddress(String scheduleURL,
+                                     RadioInfoTimeSpan timeSpan) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        format.setTimeZone(API_TIME_ZONE);
+        Calendar from = Calendar.getInstance(API_TIME_ZONE);
+        from.setTimeInMillis(timeSpan.getBeforeTime());
+        from.add(Calendar.DAY_OF_MONTH, -1);
+        String fromDate = format.format(from.getTime());
+        String toDate = format.format(new Date(timeSpan.getAfterTime()));
+        return scheduleURL + (scheduleURL.indexOf('?') < 0 ? "?" : "&") +
+               "fromdate=" + fromDate + "&todate=" + toDate + "&size=" +
+               SCHEDULE_PAGE_SIZE;
+    }
 
-            String startTimeUTC = getElementContent(episodeElement,
-                                                    "starttimeutc", 0);
+    /**
+     * Reads a page of channels.
+     * @param address   String - the page address.
+     * @param channels  List - the list the read channels are added to.
+     * @param report    RadioInfoRefreshReport - the update's report.
+     * @return  PageInfo - the page's pagination.
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private PageInfo readChannelPage(String address,
+                                     List<RadioChannelInfo> channels,
+                                     RadioInfoRefreshReport report)
+            throws IOException, XMLStreamException {
+        final List<RadioChannelInfo> read = new ArrayList<RadioChannelInfo>();
+        PageInfo pageInfo = readPage(address, RadioInfoResourceType.CHANNELS,
+                                     report, new PageReader<PageInfo>() {
+            @Override
+            public PageInfo read(RadioInfoHttpCache.Body in)
+                    throws IOException, XMLStreamException {
+                /* A retried page starts over. */
+                read.clear();
+                PageInfo pageInfo = new PageInfo();
+                XMLStreamReader reader = createReader(in);
+                try {
+                    while (reader.hasNext()) {
+                        if (reader.next() ==
+                            XMLStreamConstants.START_ELEMENT) {
+                            String name = reader.getLocalName();
+                            if ("pagination".equals(name)) {
+                                readPagination(reader, pageInfo);
+                            } else if ("channel".equals(name)) {
+                                read.add(readChannel(reader));
+                            }
+                        }
+                    }
+                    in.readToEnd();
+                } finally {
+                    reader.close();
+                }
+                return pageInfo;
+            }
+        });
+        channels.addAll(read);
+        return pageInfo;
+    }
 
-            String endTimeUTC = getElementContent(episodeElement,
-                                                  "endtimeutc", 0);
+    /**
+     * Reads a page of a channel's schedule and adds the episodes playing
+     * inside the time span to a list. Episodes after an episode
+     * starting after the time span are skipped. A page with the same hash as
+     * in the last update keeps its episodes from then. A page served from
+     * disk is not parsed again, a downloaded page's hash is only known once
+     * it has been parsed.
+     * @param address       String - the page address.
+     * @param episodes      List - the list the read episodes are added to.
+     * @param timeSpan      RadioInfoTimeSpan - the time span.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @return  PageInfo - the page's pagination.
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private PageInfo readSchedulePage(String address,
+                                      List<RadioEpisodeInfo> episodes,
+                                      RadioInfoTimeSpan timeSpan,
+                                      final RadioInfoController controller,
+                                      final RadioInfoRefreshReport report)
+            throws IOException, XMLStreamException {
+        final ParsedPage lastPage = getParsedPage(address);
+        ParsedPage parsedPage = readPage(address,
+                RadioInfoResourceType.SCHEDULE, report,
+                new PageReader<ParsedPage>() {
+            @Override
+            public ParsedPage read(RadioInfoHttpCache.Body in)
+                    throws IOException, XMLStreamException {
+                if (isSamePage(lastPage, in.getHash())) {
+                    report.countSkippedPage();
+                    return lastPage;
+                }
+                ParsedPage parsedPage = parseSchedulePage(in, controller,
+                                                          report);
+                /* A download's hash is only known once it has been read. */
+                if (isSamePage(lastPage, parsedPage.hash)) {
+                    report.countSkippedPage();
+                    return lastPage;
+                }
+                return parsedPage;
+            }
+        });
+        putParsedPage(address, parsedPage);
 
+        PageInfo pageInfo = new PageInfo();
+        pageInfo.hash = parsedPage.hash;
+        pageInfo.totalPages = parsedPage.pageInfo.totalPages;
+        pageInfo.totalHits = parsedPage.pageInfo.totalHits;
+        pageInfo.nextPage = parsedPage.pageInfo.nextPage;
+        for (RadioEpisodeInfo episodeInfo : parsedPage.episodes) {
+            long startTime = episodeInfo.getStartTime();
             /* If episode is plaing inside given time span. */
-            if (controller.checkTimeDate(startTimeUTC, endTimeUTC)) {
-                RadioEpisodeInfo episodeInfo = new RadioEpisodeInfo(title);
-                episodeInfo.setDescription(description);
-                episodeInfo.setEndTimeUTC(endTimeUTC);
-                episodeInfo.setStartTimeUTC(startTimeUTC);
+            if (timeSpan.contains(startTime, episodeInfo.getEndTime())) {
+                episodes.add(episodeInfo);
+            } else if (startTime >= timeSpan.getAfterTime()) {
+                pageInfo.isPastTimeSpan = true;
+                break;
+            }
+        }
+        return pageInfo;
+    }
 
-                String imageURL;
-                imageURL = getElementContent(episodeElement, "imageurl", 0);
-                episodeInfo.setImageURL(imageURL);
+    /**
+     * Parses all episodes of a schedule page. The page only holds the dates
+     * that were asked for, so the episodes are kept whole and checked
+     * against the time span by the caller, which lets the next update reuse
+     * them. The page is read to its end so its hash is known.
+     * @param in            RadioInfoHttpCache.Body - the page.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @return  ParsedPage - the parsed page.
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private ParsedPage parseSchedulePage(RadioInfoHttpCache.Body in,
+                                         RadioInfoController controller,
+                                         RadioInfoRefreshReport report)
+            throws IOException, XMLStreamException {
+        ParsedPage parsedPage = new ParsedPage();
+        XMLStreamReader reader = createReader(in);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("pagination".equals(name)) {
+                        readPagination(reader, parsedPage.pageInfo);
+                    } else if ("scheduledepisode".equals(name)) {
+                        RadioEpisodeInfo episodeInfo;
+                        episodeInfo = readEpisode(reader, controller, report);
+                        if (episodeInfo != null) {
+                            parsedPage.episodes.add(episodeInfo);
+                        }
+                    }
+                }
+            }
+            in.readToEnd();
+        } finally {
+            reader.close();
+        }
+        parsedPage.hash = in.getHash();
+        return parsedPage;
+    }
 
-                /* Add episode to channel's episode list. */
-                channelInfo.addEpisodeInfo(episodeInfo);
+    /**
+     * Checks if a page has the same hash as a page parsed before.
+     * @param parsedPage    ParsedPage - the page parsed before, may be null.
+     * @param hash          byte[] - the page's hash, may be null.
+     * @return  boolean - true if the hashes are the same, else false.
+     */
+    private static boolean isSamePage(ParsedPage parsedPage, byte[] hash) {
+        return parsedPage != null && hash != null &&
+               Arrays.equals(hash, parsedPage.hash);
+    }
+
+    /**
+     * Gets a schedule page parsed in this or the last update.
+     * @param address   String - the page address.
+     * @return  ParsedPage - the parsed page, else null.
+     */
+    private synchronized ParsedPage getParsedPage(String address) {
+        ParsedPage parsedPage = parsedPages.get(address);
+        if (parsedPage == null) {
+            parsedPage = lastParsedPages.get(address);
+        }
+        return parsedPage;
+    }
+
+    /**
+     * Remembers a parsed schedule page for the next update.
+     * @param address       String - the page address.
+     * @param parsedPage    ParsedPage - the parsed page.
+     */
+    private synchronized void putParsedPage(String address,
+                                            ParsedPage parsedPage) {
+        parsedPages.put(address, parsedPage);
+    }
+
+    /**
+     * Starts a new update's parsed pages. Only the pages of the last update
+     * are kept, so pages no longer asked for are forgotten.
+     */
+    private synchronized void startParsedPages() {
+        lastParsedPages = parsedPages;
+        parsedPages = new HashMap<String, ParsedPage>();
+    }
+
+    /**
+     * Reads a pagination element. The reader is left on the element's end.
+     * @param reader    XMLStreamReader - reader on the pagination element.
+     * @param pageInfo  PageInfo - the page information to fill.
+     * @throws XMLStreamException
+     */
+    private void readPagination(XMLStreamReader reader, PageInfo pageInfo)
+            throws XMLStreamException {
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "totalpages":
+                    pageInfo.totalPages = parseInt(reader.getElementText());
+                    break;
+                case "totalhits":
+                    pageInfo.totalHits = parseInt(reader.getElementText());
+                    break;
+                case "nextpage":
+                    pageInfo.nextPage = reader.getElementText().trim();
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    /**
+     * Reads a channel element. The reader is left on the element's end.
+     * @param reader    XMLStreamReader - reader on the channel element.
+     * @return  RadioChannelInfo - the channel information.
+     * @throws XMLStreamException
+     */
+    private RadioChannelInfo readChannel(XMLStreamReader reader)
+            throws XMLStreamException {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setName(reader.getAttributeValue(null, "name"));
+        String id = reader.getAttributeValue(null, "id");
+        if (id != null) {
+            channelInfo.setId(parseInt(id));
+        }
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "channeltype":
+                    channelInfo.setChannelType(reader.getElementText());
+                    break;
+                case "scheduleurl":
+                    channelInfo.setScheduleURL(reader.getElementText().
+                                               trim());
+                    break;
+                default:
+                    skipElement(reader);
             }
         }
+        return channelInfo;
     }
 
     /**
-     * Gets text content from given element name inside a element if it's not
-     * null.
-     * @param el        Element - the element.
-     * @param elName    String - element name.
-     * @param index     int - element item index.
-     * @return  String - the text content if exist, else null.
+     * Reads a channel element of the episodes playing right now. The reader
+     * is left on the element's end.
+     * @param reader        XMLStreamReader - reader on the channel element.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @return  RadioChannelInfo - the channel with its current and next
+     *                             episode.
+     * @throws XMLStreamException
      */
-    private String getElementContent(Element el, String elName, int index) {
-        String elContent = null;
-        if(el != null && el.getElementsByTagName(elName) != null &&
-                el.getElementsByTagName(elName).item(index) != null) {
-            elContent = el.getElementsByTagName(elName).
-                    item(index).getTextContent();
+    private RadioChannelInfo readNowPlaying(XMLStreamReader reader,
+                                            RadioInfoController controller,
+                                            RadioInfoRefreshReport report)
+            throws XMLStreamException {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setName(reader.getAttributeValue(null, "name"));
+        String id = reader.getAttributeValue(null, "id");
+        if (id != null) {
+            channelInfo.setId(parseInt(id));
+        }
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "currentscheduledepisode":
+                case "nextscheduledepisode":
+                    RadioEpisodeInfo episodeInfo;
+                    episodeInfo = readEpisode(reader, controller, report);
+                    if (episodeInfo != null) {
+                        channelInfo.addEpisodeInfo(episodeInfo);
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+            }
         }
-        return elContent;
+        return channelInfo;
+    }
+
+    /**
+     * Reads a scheduled episode element. The reader is left on the element's
+     * end.
+     * @param reader        XMLStreamReader - reader on the episode element.
+     * @param controller    RadioInfoController - the controller.
+     * @param report        RadioInfoRefreshReport - collects bad times.
+     * @return  RadioEpisodeInfo - the episode, null if it has no valid
+     *                             times.
+     * @throws XMLStreamException
+     */
+    private RadioEpisodeInfo readEpisode(XMLStreamReader reader,
+                                         RadioInfoController controller,
+                                         RadioInfoRefreshReport report)
+            throws XMLStreamException {
+        long episodeId = 0;
+        String title = null;
+        String description = null;
+        String startTimeUTC = null;
+        String endTimeUTC = null;
+        String imageURL = null;
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "episodeid":
+                    episodeId = parseLong(reader.getElementText());
+                    break;
+                case "title":
+                    title = reader.getElementText();
+                    break;
+                case "description":
+                    description = reader.getElementText();
+                    break;
+                case "starttimeutc":
+                    startTimeUTC = reader.getElementText();
+                    break;
+                case "endtimeutc":
+                    endTimeUTC = reader.getElementText();
+                    break;
+                case "imageurl":
+                    imageURL = reader.getElementText();
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+
+        if (startTimeUTC == null || endTimeUTC == null) {
+            return null;
+        }
+        /* Parse the times once so they never have to be parsed again. */
+        long startTime;
+        long endTime;
+        try {
+            startTime = controller.parseTime(startTimeUTC);
+            endTime = controller.parseTime(endTimeUTC);
+        } catch (ParseException e) {
+            report.addError("Bad episode time in " + title + ": " +
+                            e.getMessage());
+            return null;
+        }
+        RadioEpisodeInfo episodeInfo = new RadioEpisodeInfo(title);
+        episodeInfo.setEpisodeId(episodeId);
+        episodeInfo.setDescription(description);
+        episodeInfo.setEndTimeUTC(endTimeUTC);
+        episodeInfo.setStartTimeUTC(startTimeUTC);
+        episodeInfo.setStartTime(startTime);
+        episodeInfo.setEndTime(endTime);
+        episodeInfo.setStartTimeText(controller.formatTime(startTime));
+        episodeInfo.setEndTimeText(controller.formatTime(endTime));
+        episodeInfo.setImageURL(imageURL);
+        return episodeInfo;
+    }
+
+    /**
+     * Moves the reader to the next child of the current element. Only the
+     * direct children are visited, nested elements are skipped by the
+     * caller.
+     * @param reader    XMLStreamReader - the reader.
+     * @return  boolean - true if the reader is on a child's start, false if
+     *                    the current element has ended.
+     * @throws XMLStreamException
+     */
+    private boolean nextChild(XMLStreamReader reader)
+            throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips the current element and everything inside it. The reader is left
+     * on the element's end.
+     * @param reader    XMLStreamReader - reader on an element's start.
+     * @throws XMLStreamException
+     */
+    private void skipElement(XMLStreamReader reader)
+            throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads a page through the http cache, the page is read from the
+     * connection while it is parsed. A read that failed for a transient
+     * reason, when sending the request or while the body was read, is
+     * tried again from the start after a delay that doubles for each try,
+     * with a random part so channels failing together do not retry
+     * together. The page is kept fresh in the cache for the time to live of
+     * its type.
+     * @param address       String - the address.
+     * @param type          RadioInfoResourceType - the kind of page.
+     * @param report        RadioInfoRefreshReport - the update's report.
+     * @param pageReader    PageReader - reads the opened page.
+     * @param <T>           the type read from the page.
+     * @return  T - what was read from the page.
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private <T> T readPage(String address, RadioInfoResourceType type,
+                           RadioInfoRefreshReport report,
+                           PageReader<T> pageReader)
+            throws IOException, XMLStreamException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                RadioInfoHttpCache.Body in = httpCache.open(address, type,
+                                                            report);
+                try {
+                    return pageReader.read(in);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                if (isStopped(e) || attempt >= retries || !isTransient(e)) {
+                    throw e;
+                }
+            } catch (XMLStreamException e) {
+                /* The parser wraps errors reading the body. */
+                IOException cause = getReadError(e);
+                if (cause != null && isStopped(cause)) {
+                    throw cause;
+                }
+                if (attempt >= retries || !isTransient(e)) {
+                    throw e;
+                }
+            }
+            report.countRetry();
+            long delay = retryDelay << attempt;
+            delay = delay / 2 + ThreadLocalRandom.current().nextLong(
+                    delay / 2 + 1);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(interrupted.toString());
+            }
+        }
+    }
+
+    /**
+     * Checks if a failed request may succeed if it is tried again. Failed
+     * connections, timeouts, server errors and too many requests are
+     * transient. Other error statuses and bad addresses fail the same way
+     * every time.
+     * @param error IOException - why the request failed.
+     * @return  boolean - true if the failure is transient, else false.
+     */
+    static boolean isTransient(IOException error) {
+        if (error instanceof RadioInfoHttpException) {
+            return ((RadioInfoHttpException) error).isTransient();
+        }
+        return !(error instanceof MalformedURLException);
+    }
+
+    /**
+     * Checks if a page that could not be parsed may be read if it is tried
+     * again. Only a page whose body could not be read for a transient
+     * reason may, a page with bad XML is bad every time.
+     * @param error XMLStreamException - why the page could not be parsed.
+     * @return  boolean - true if the failure is transient, else false.
+     */
+    static boolean isTransient(XMLStreamException error) {
+        IOException cause = getReadError(error);
+        return cause != null && isTransient(cause);
+    }
+
+    /**
+     * Gets the error reading the body that made the parser fail.
+     * @param error XMLStreamException - why the page could not be parsed.
+     * @return  IOException - the read error, null if there is none.
+     */
+    private static IOException getReadError(XMLStreamException error) {
+        for (Throwable cause = error.getCause(); cause != null;
+             cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return (IOException) cause;
+            }
+        }
+        Throwable nested = error.getNestedException();
+        return nested instanceof IOException ? (IOException) nested : null;
+    }
+
+    /**
+     * Checks if a read failed because the update was stopped. A timeout is
+     * an interrupted read too, but it is not stopped.
+     * @param error IOException - why the read failed.
+     * @return  boolean - true if stopped, else false.
+     */
+    private static boolean isStopped(IOException error) {
+        return error instanceof InterruptedIOException &&
+               !(error instanceof SocketTimeoutException);
+    }
+
+    /**
+     * Creates a stream reader for a page. The factory is looked up once per
+     * thread and reused for every page and update after that.
+     * @param in    InputStream - the page's input stream.
+     * @return  XMLStreamReader - the reader.
+     * @throws XMLStreamException
+     */
+    private XMLStreamReader createReader(InputStream in)
+            throws XMLStreamException {
+        return inputFactory.get().createXMLStreamReader(in);
+    }
+
+    /**
+     * Parses an integer from element text.
+     * @param text  String - the text.
+     * @return  int - the integer, 0 if the text is not a number.
+     */
+    private int parseInt(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses a long from element text.
+     * @param text  String - the text.
+     * @return  long - the number, 0 if the text is not a number.
+     */
+    private long parseLong(String text) {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * A task on the schedule executor. Tasks are taken by priority, lowest
+     * first, and tasks of the same priority in the order they were made.
+     * @param <T>   the task result type.
+     */
+    static class ScheduleTask<T> extends FutureTask<T>
+            implements Comparable<ScheduleTask<?>> {
+        /* Counter giving tasks their order. */
+        private static final AtomicLong taskCount = new AtomicLong();
+        private volatile int priority;  //Priority, lowest first.
+        private final long sequence;    //Order the task was made in.
+
+        /**
+         * Constructor for a schedule task.
+         * @param priority  int - the priority, lowest first.
+         * @param callable  Callable - the work of the task.
+         */
+        ScheduleTask(int priority, Callable<T> callable) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = taskCount.incrementAndGet();
+        }
+
+        @Override
+        public int compareTo(ScheduleTask<?> other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * A schedule page's pagination and all its episodes.
+     */
+    private static class ParsedPage {
+        private byte[] hash = null; //Hash of the page, or null.
+        private final PageInfo pageInfo = new PageInfo();   //The pagination.
+        /* The episodes in page order. */
+        private final List<RadioEpisodeInfo> episodes =
+                new ArrayList<RadioEpisodeInfo>();
+    }
+
+    /**
+     * Reads what is wanted from an opened page.
+     * @param <T>   the type read from the page.
+     */
+    private interface PageReader<T> {
+
+        /**
+         * Reads a page, the page is closed by the caller.
+         * @param in    RadioInfoHttpCache.Body - the page.
+         * @return  T - what was read from the page.
+         * @throws IOException
+         * @throws XMLStreamException
+         */
+        T read(RadioInfoHttpCache.Body in)
+                throws IOException, XMLStreamException;
+    }
+
+    /**
+     * Pagination information read from a page.
+     */
+    private static class PageInfo {
+        private int totalPages = 1;     //Amount of pages.
+        private int totalHits = 0;      //Amount of items on all pages.
+        private String nextPage = null; //Address to the next page.
+        private byte[] hash = null;     //Hash of the page, or null.
+        /* If an item starting after the time span was read. */
+        private boolean isPastTimeSpan = false;
     }
 }
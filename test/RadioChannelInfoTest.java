@@ -32,7 +32,17 @@ public class RadioChannelInfoTest {
         assertTrue(type.equals(channelInfoTest.getChannelType()));
     }
 
+    @Test
+    public void getScheduleURLTest() throws Exception {
+        assertNull(channelInfoTest.getScheduleURL());
+    }
 
+    @Test
+    public void setScheduleURLTest() throws Exception {
+        String scheduleURL = "scheduleTest";
+        channelInfoTest.setScheduleURL(scheduleURL);
+        assertEquals(scheduleURL, channelInfoTest.getScheduleURL());
+    }
 
     @Test
     public void getEpisodesInfoListTest() throws Exception {
@@ -52,6 +62,34 @@ public class RadioChannelInfoTest {
         String title = "episodeTest";
         RadioEpisodeInfo episodeInfo = new RadioEpisodeInfo(title);
         channelInfoTest.addEpisodeInfo(episodeInfo);
-        assertNotNull(channelInfoTest.getEpisodeInfo(title));
+        assertSame(episodeInfo, channelInfoTest.getEpisodeInfo(title, 0L));
+        assertNull(channelInfoTest.getEpisodeInfo("otherTest", 0L));
+    }
+
+    @Test
+    public void setIdTest() throws Exception {
+        channelInfoTest.setId(132);
+        assertEquals(132, channelInfoTest.getId());
+    }
+
+    @Test
+    public void getRerunEpisodeInfoTest() throws Exception {
+        String title = "episodeTest";
+        RadioEpisodeInfo first = new RadioEpisodeInfo(title);
+        first.setStartTime(1000L);
+        RadioEpisodeInfo rerun = new RadioEpisodeInfo(title);
+        rerun.setStartTime(2000L);
+        channelInfoTest.addEpisodeInfo(first);
+        channelInfoTest.addEpisodeInfo(rerun);
+        assertSame(first, channelInfoTest.getEpisodeInfo(title, 1000L));
+        assertSame(rerun, channelInfoTest.getEpisodeInfo(title, 2000L));
+    }
+
+    @Test
+    public void setStaleTest() throws Exception {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        assertFalse(channelInfo.isStale());
+        channelInfo.setStale(true);
+        assertTrue(channelInfo.isStale());
     }
 }
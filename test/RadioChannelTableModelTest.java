@@ -0,0 +1,128 @@
+package src;
+
+import org.junit.Test;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RadioChannelTableModelTest {
+    RadioChannelTableModel tableModel = new RadioChannelTableModel();
+
+    @Test
+    public void emptyTableTest() throws Exception {
+        assertEquals(0, tableModel.getRowCount());
+        assertEquals(2, tableModel.getColumnCount());
+        assertNull(tableModel.getChannelInfo(0));
+    }
+
+    @Test
+    public void setChannelsTest() throws Exception {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setName("nameTest");
+        channelInfo.setChannelType("typeTest");
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        tableModel.setChannels(channels);
+
+        assertEquals(1, tableModel.getRowCount());
+        assertEquals("nameTest", tableModel.getValueAt(0, 0));
+        assertEquals("typeTest", tableModel.getValueAt(0, 1));
+        assertSame(channelInfo, tableModel.getChannelInfo(0));
+    }
+
+    @Test
+    public void setChannelsSameOrderTest() throws Exception {
+        RadioChannelInfo first = createChannel(1);
+        RadioChannelInfo second = createChannel(2);
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(first);
+        channels.add(second);
+        tableModel.setChannels(channels);
+
+        final List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+        tableModel.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+        channels = new ArrayList<RadioChannelInfo>();
+        channels.add(first);
+        channels.add(createChannel(2));
+        tableModel.setChannels(channels);
+
+        assertEquals(1, events.size());
+        assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+        assertEquals(1, events.get(0).getFirstRow());
+        assertEquals(1, tableModel.getRow(channels.get(1)));
+        assertEquals(-1, tableModel.getRow(second));
+    }
+
+    private RadioChannelInfo createChannel(int id) {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(id);
+        channelInfo.setName("name" + id);
+        return channelInfo;
+    }
+
+    @Test
+    public void staleChannelTest() throws Exception {
+        RadioChannelInfo channelInfo = createChannel(1);
+        channelInfo.setChannelType("typeTest");
+        channelInfo.setStale(true);
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        tableModel.setChannels(channels);
+
+        assertEquals("typeTest (not updated)", tableModel.getValueAt(0, 1));
+    }
+
+    @Test
+    public void putChannelTest() throws Exception {
+        final List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+        tableModel.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+        RadioChannelInfo third = createChannel(3);
+        tableModel.putChannel(2, third);
+        tableModel.putChannel(0, createChannel(1));
+        tableModel.putChannel(1, createChannel(2));
+
+        assertEquals(3, tableModel.getRowCount());
+        assertEquals("name1", tableModel.getValueAt(0, 0));
+        assertEquals("name2", tableModel.getValueAt(1, 0));
+        assertEquals("name3", tableModel.getValueAt(2, 0));
+        assertEquals(TableModelEvent.INSERT, events.get(2).getType());
+        assertEquals(1, events.get(2).getFirstRow());
+
+        RadioChannelInfo updated = createChannel(3);
+        tableModel.putChannel(2, updated);
+
+        assertEquals(3, tableModel.getRowCount());
+        assertEquals(TableModelEvent.UPDATE, events.get(3).getType());
+        assertEquals(2, tableModel.getRow(updated));
+        assertEquals(-1, tableModel.getRow(third));
+    }
+
+    @Test
+    public void putChannelWithoutIdTest() throws Exception {
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(createChannel(0));
+        channels.add(createChannel(0));
+        tableModel.setChannels(channels);
+
+        RadioChannelInfo updated = createChannel(0);
+        tableModel.putChannel(1, updated);
+
+        assertEquals(2, tableModel.getRowCount());
+        assertEquals(1, tableModel.getRow(updated));
+        assertEquals(0, tableModel.getRow(channels.get(0)));
+    }
+}
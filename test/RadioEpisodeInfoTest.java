@@ -68,4 +68,37 @@ public class RadioEpisodeInfoTest {
         assertTrue(description.equals(episodeInfo.getDescription()));
     }
 
+    @Test
+    public void setStartTime() throws Exception {
+        episodeInfo.setStartTime(1000L);
+        assertEquals(1000L, episodeInfo.getStartTime());
+    }
+
+    @Test
+    public void setEndTime() throws Exception {
+        episodeInfo.setEndTime(2000L);
+        assertEquals(2000L, episodeInfo.getEndTime());
+    }
+
+    @Test
+    public void setStartTimeText() throws Exception {
+        String time = "12:00:00";
+        episodeInfo.setStartTimeText(time);
+        assertEquals(time, episodeInfo.getStartTimeText());
+    }
+
+    @Test
+    public void setEndTimeText() throws Exception {
+        String time = "13:00:00";
+        episodeInfo.setEndTimeText(time);
+        assertEquals(time, episodeInfo.getEndTimeText());
+    }
+
+    @Test
+    public void setEpisodeId() throws Exception {
+        assertEquals(0L, episodeInfo.getEpisodeId());
+        episodeInfo.setEpisodeId(42L);
+        assertEquals(42L, episodeInfo.getEpisodeId());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package src;
+
+import org.junit.Test;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RadioEpisodeTableModelTest {
+    RadioEpisodeTableModel tableModel = new RadioEpisodeTableModel();
+
+    @Test
+    public void emptyTableTest() throws Exception {
+        assertEquals(0, tableModel.getRowCount());
+        assertEquals(2, tableModel.getColumnCount());
+        assertNull(tableModel.getEpisodeInfo(0));
+        assertFalse(tableModel.hasEpisodeEnded(0));
+    }
+
+    @Test
+    public void setEpisodesTest() throws Exception {
+        RadioEpisodeInfo ended = new RadioEpisodeInfo("endedTest");
+        ended.setEndTime(1000L);
+        ended.setStartTimeText("12:00:00");
+        ended.setEndTimeText("13:00:00");
+        RadioEpisodeInfo playing = new RadioEpisodeInfo("playingTest");
+        playing.setEndTime(3000L);
+        List<RadioEpisodeInfo> episodes = new ArrayList<RadioEpisodeInfo>();
+        episodes.add(ended);
+        episodes.add(playing);
+        tableModel.setEpisodes(episodes, 2000L);
+
+        assertEquals(2, tableModel.getRowCount());
+        assertEquals("endedTest", tableModel.getValueAt(0, 0));
+        assertEquals("12:00:00 - 13:00:00", tableModel.getValueAt(0, 1));
+        assertTrue(tableModel.hasEpisodeEnded(0));
+        assertFalse(tableModel.hasEpisodeEnded(1));
+        assertSame(playing, tableModel.getEpisodeInfo(1));
+    }
+
+    @Test
+    public void updateEpisodesTest() throws Exception {
+        RadioEpisodeInfo first = createEpisode("first", 0, 100);
+        RadioEpisodeInfo second = createEpisode("second", 100, 200);
+        RadioEpisodeInfo third = createEpisode("third", 200, 300);
+        List<RadioEpisodeInfo> episodes = new ArrayList<RadioEpisodeInfo>();
+        episodes.add(first);
+        episodes.add(second);
+        tableModel.setEpisodes(episodes, 50);
+
+        final List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+        tableModel.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+        episodes = new ArrayList<RadioEpisodeInfo>();
+        episodes.add(second);
+        episodes.add(third);
+        tableModel.updateEpisodes(episodes, 50);
+
+        assertEquals(2, events.size());
+        assertEquals(TableModelEvent.DELETE, events.get(0).getType());
+        assertEquals(0, events.get(0).getFirstRow());
+        assertEquals(TableModelEvent.INSERT, events.get(1).getType());
+        assertEquals(1, events.get(1).getFirstRow());
+        assertSame(second, tableModel.getEpisodeInfo(0));
+        assertSame(third, tableModel.getEpisodeInfo(1));
+    }
+
+    @Test
+    public void updateEpisodesEndedTest() throws Exception {
+        List<RadioEpisodeInfo> episodes = new ArrayList<RadioEpisodeInfo>();
+        episodes.add(createEpisode("first", 0, 100));
+        episodes.add(createEpisode("second", 100, 200));
+        tableModel.setEpisodes(episodes, 50);
+
+        final List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+        tableModel.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+        tableModel.updateEpisodes(episodes, 150);
+
+        assertEquals(1, events.size());
+        assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+        assertEquals(0, events.get(0).getFirstRow());
+        assertTrue(tableModel.hasEpisodeEnded(0));
+    }
+
+    private RadioEpisodeInfo createEpisode(String title, long startTime,
+                                           long endTime) {
+        RadioEpisodeInfo episodeInfo = new RadioEpisodeInfo(title);
+        episodeInfo.setStartTime(startTime);
+        episodeInfo.setEndTime(endTime);
+        return episodeInfo;
+    }
+}
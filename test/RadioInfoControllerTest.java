@@ -3,6 +3,7 @@ package src;
 import org.junit.Test;
 
 import javax.swing.*;
+import java.io.File;
 
 import static org.junit.Assert.*;
 
@@ -10,11 +11,6 @@ public class RadioInfoControllerTest {
     String address = "xmlAddress";
     RadioInfoController controller = new RadioInfoController(address);
 
-    @Test
-    public void getDateFormatTest() throws Exception {
-        assertNotNull(controller.getDateFormat());
-    }
-
     @Test
     public void getTimeFormatTest() throws Exception {
         assertNotNull(controller.getTimeFormat());
@@ -31,6 +27,47 @@ public class RadioInfoControllerTest {
         assertTrue(controller.isUpdating());
     }
 
+    @Test
+    public void getRefreshStateTest() throws Exception {
+        assertEquals(RadioInfoRefreshState.IDLE, controller.getRefreshState());
+        controller.setIsUpdating(true);
+        assertEquals(RadioInfoRefreshState.FETCHING,
+                     controller.getRefreshState());
+    }
+
+    @Test
+    public void saveFailureReportedTest() throws Exception {
+        File parent = File.createTempFile("radioinfo", ".file");
+        parent.deleteOnExit();
+        String old = System.setProperty("radioinfo.snapshot.file",
+                new File(parent, "snapshot.bin").getPath());
+        RadioInfoController failing;
+        try {
+            failing = new RadioInfoController(address);
+        } finally {
+            if (old == null) {
+                System.clearProperty("radioinfo.snapshot.file");
+            } else {
+                System.setProperty("radioinfo.snapshot.file", old);
+            }
+        }
+        RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+
+        failing.saveSnapshot(report);
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.getErrors().get(0).startsWith(
+                "Could not save snapshot"));
+    }
+
+    @Test
+    public void supersededWorkerCanNotPublishTest() throws Exception {
+        controller.setIsUpdating(true);
+        RadioInfoUpdateWorker worker = new RadioInfoUpdateWorker(controller);
+        assertFalse(controller.startPublishing(worker));
+        assertEquals(RadioInfoRefreshState.FETCHING,
+                     controller.getRefreshState());
+    }
+
     @Test
     public void guiIsSetTest() throws Exception {
         assertFalse(controller.guiIsSet());
@@ -60,4 +97,22 @@ public class RadioInfoControllerTest {
         assertNotNull(controller.getXMLParser());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void selectedChannelFetchedFirstTest() throws Exception {
+        RadioChannelInfo selected = new RadioChannelInfo();
+        selected.setId(132);
+        RadioChannelInfo other = new RadioChannelInfo();
+        other.setId(164);
+        controller.setSelectedChannel(selected);
+        RadioChannelInfo fetched = new RadioChannelInfo();
+        fetched.setId(132);
+        assertEquals(0, controller.getFetchPriority(fetched));
+        assertTrue(controller.getFetchPriority(other) > 0);
+    }
+
+    @Test
+    public void lazySchedulesOffByDefaultTest() throws Exception {
+        assertFalse(controller.isLazySchedules());
+    }
+}
@@ -0,0 +1,51 @@
+package src;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoDeadlineInputStreamTest {
+
+    @Test
+    public void readBeforeDeadlineTest() throws Exception {
+        InputStream body = new ByteArrayInputStream(new byte[] { 1, 2 });
+        InputStream in = new RadioInfoDeadlineInputStream(body, 5000, body);
+        assertEquals(2, RadioInfoHttpCache.readAll(in).length);
+    }
+
+    @Test
+    public void blockedReadTimesOutTest() throws Exception {
+        final CountDownLatch closed = new CountDownLatch(1);
+        InputStream body = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    closed.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                throw new IOException("closed");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        InputStream in = new RadioInfoDeadlineInputStream(body, 50, body);
+        boolean isTimedOut = false;
+        try {
+            in.read();
+        } catch (SocketTimeoutException e) {
+            isTimedOut = true;
+        }
+        assertTrue(isTimedOut);
+    }
+}
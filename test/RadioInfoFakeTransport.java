@@ -0,0 +1,142 @@
+package src;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport for the tests that serves a map of address to status, headers
+ * and body. A page with an ETag is answered with 304 Not Modified when the
+ * request has a matching validator, an unknown address is not found. Keeps
+ * the addresses and headers sent.
+ * @author Johan Ahlqvist
+ * 2026-10-18
+ */
+class RadioInfoFakeTransport implements RadioInfoTransport {
+
+    /* The pages served by key. */
+    private final Map<String, Page> pages = new HashMap<String, Page>();
+    /* The addresses requested, in order. */
+    private final List<String> requested = new ArrayList<String>();
+    /* The request headers sent, in order. */
+    private final List<Map<String, String>> sent =
+            new ArrayList<Map<String, String>>();
+
+    /**
+     * Serves a response for an address, replaces any earlier one.
+     * @param address   String - the address.
+     * @param status    int - the status code.
+     * @param headers   Map - the response headers by name.
+     * @param body      byte[] - the body.
+     */
+    synchronized void serve(String address, int status,
+                            Map<String, String> headers, byte[] body) {
+        pages.put(getKey(address), new Page(status,
+                new HashMap<String, String>(headers), body.clone()));
+    }
+
+    /**
+     * Serves a page as UTF-8 with status 200 for an address.
+     * @param address   String - the address.
+     * @param headers   Map - the response headers by name.
+     * @param page      String - the page.
+     */
+    void serve(String address, Map<String, String> headers, String page) {
+        serve(address, 200, headers, page.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the key a page is served by. Tests override it to leave out
+     * parameters that change between requests.
+     * @param address   String - the address.
+     * @return  String - the key.
+     */
+    String getKey(String address) {
+        return address;
+    }
+
+    /**
+     * Gets the number of requests sent.
+     * @return  int - the number of requests.
+     */
+    synchronized int getRequestCount() {
+        return requested.size();
+    }
+
+    /**
+     * Gets the headers sent with a request.
+     * @param index int - the request's index, in order.
+     * @return  Map - the request headers by name.
+     */
+    synchronized Map<String, String> getSent(int index) {
+        return sent.get(index);
+    }
+
+    /**
+     * Gets the first address requested with the same key as an address.
+     * @param address   String - the address.
+     * @return  String - the address requested, null if none.
+     */
+    synchronized String getAddress(String address) {
+        String key = getKey(address);
+        for (String request : requested) {
+            if (getKey(request).equals(key)) {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if an address with the same key as an address was requested.
+     * @param address   String - the address.
+     * @return  boolean - true if requested, else false.
+     */
+    boolean isRequested(String address) {
+        return getAddress(address) != null;
+    }
+
+    @Override
+    public synchronized RadioInfoHttpResponse get(String address,
+            Map<String, String> headers) {
+        requested.add(address);
+        sent.add(new HashMap<String, String>(headers));
+        Page page = pages.get(getKey(address));
+        if (page == null) {
+            return new RadioInfoHttpResponse(404,
+                    new HashMap<String, String>(), new byte[0], 0);
+        }
+        Map<String, String> response =
+                new HashMap<String, String>(page.headers);
+        String eTag = response.remove("ETag");
+        if (eTag != null && eTag.equals(headers.get("If-None-Match"))) {
+            return new RadioInfoHttpResponse(304, response, new byte[0], 0);
+        }
+        if (eTag != null) {
+            response.put("ETag", eTag);
+        }
+        return new RadioInfoHttpResponse(page.status, response,
+                                         page.body.clone(), page.body.length);
+    }
+
+    @Override
+    public void warmUp(String address) {
+    }
+
+    /**
+     * Class that holds a response served for an address.
+     */
+    private static class Page {
+        private final int status;                   //The status code.
+        private final Map<String, String> headers;  //The headers by name.
+        private final byte[] body;                  //The body.
+
+        private Page(int status, Map<String, String> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package src;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.prefs.Preferences;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoFavouritesTest {
+    Preferences preferences =
+            Preferences.userRoot().node("radioinfo-test-favourites");
+
+    @After
+    public void removePreferences() throws Exception {
+        preferences.removeNode();
+    }
+
+    @Test
+    public void noFavouritesTest() throws Exception {
+        RadioInfoFavourites favourites = new RadioInfoFavourites(preferences);
+        assertFalse(favourites.isFavourite(132));
+        assertTrue(favourites.getChannelIds().isEmpty());
+    }
+
+    @Test
+    public void setFavouriteTest() throws Exception {
+        RadioInfoFavourites favourites = new RadioInfoFavourites(preferences);
+        favourites.setFavourite(132, true);
+        favourites.setFavourite(164, true);
+        favourites.setFavourite(164, false);
+        assertTrue(favourites.isFavourite(132));
+        assertFalse(favourites.isFavourite(164));
+    }
+
+    @Test
+    public void favouritesAreKeptTest() throws Exception {
+        new RadioInfoFavourites(preferences).setFavourite(132, true);
+        RadioInfoFavourites favourites = new RadioInfoFavourites(preferences);
+        assertTrue(favourites.isFavourite(132));
+        assertEquals(1, favourites.getChannelIds().size());
+    }
+
+    @Test
+    public void channelWithoutIdTest() throws Exception {
+        RadioInfoFavourites favourites = new RadioInfoFavourites(preferences);
+        favourites.setFavourite(0, true);
+        assertFalse(favourites.isFavourite(0));
+    }
+}
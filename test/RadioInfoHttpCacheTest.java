@@ -0,0 +1,188 @@
+package src;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoHttpCacheTest {
+    private static final String ADDRESS = "http://localhost/schedule";
+    private static final byte[] BODY = { 1, 2, 3 };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void createHttpCacheTest() {
+        assertNotNull(new RadioInfoHttpCache(folder.getRoot(), 1024));
+    }
+
+    @Test
+    public void countsStartAtZeroTest() throws Exception {
+        RadioInfoHttpCache httpCache;
+        httpCache = new RadioInfoHttpCache(folder.getRoot(), 1024);
+        assertEquals(0, httpCache.getHitCount());
+        assertEquals(0, httpCache.getNotModifiedCount());
+        assertEquals(0, httpCache.getMissCount());
+    }
+
+    @Test
+    public void revalidateWithTransportTest() throws Exception {
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport();
+        String address = "http://localhost/" + System.nanoTime();
+        transport.serve(address, 200, eTagHeaders(null),
+                        new byte[] { 1, 2 });
+        RadioInfoHttpCache cache = new RadioInfoHttpCache(folder.getRoot(),
+                                                          1024, transport);
+
+        assertArrayEquals(new byte[] { 1, 2 }, cache.get(address, null));
+        assertArrayEquals(new byte[] { 1, 2 }, cache.get(address, null));
+        assertEquals("\"v1\"", transport.getSent(1).get("If-None-Match"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void expiresWithTypeTest() throws Exception {
+        assertEquals(1000 + 600 * 1000, RadioInfoHttpCache.expires(null, 1000,
+                     RadioInfoResourceType.SCHEDULE));
+        assertEquals(1000 + 3600 * 1000, RadioInfoHttpCache.expires(
+                     "max-age=3600", 1000, RadioInfoResourceType.SCHEDULE));
+        assertEquals(1000, RadioInfoHttpCache.expires(
+                     "no-cache", 1000, RadioInfoResourceType.IMAGE));
+        assertEquals(1000, RadioInfoHttpCache.expires(
+                     "max-age=0", 1000, RadioInfoResourceType.CHANNELS));
+        assertEquals(Long.MAX_VALUE, RadioInfoHttpCache.expires(
+                     "public", 1000, RadioInfoResourceType.IMAGE));
+        assertEquals(1000, RadioInfoHttpCache.expires(null, 1000,
+                     RadioInfoResourceType.NOW_PLAYING));
+    }
+
+    @Test
+    public void cacheControlAnyCaseTest() throws Exception {
+        assertEquals(1000, RadioInfoHttpCache.expires("No-Cache, Max-Age=60",
+                                                      1000));
+        assertEquals(1000, RadioInfoHttpCache.expires("NO-STORE", 1000));
+        assertEquals(1000 + 60 * 1000, RadioInfoHttpCache.expires(
+                     "public, MAX-AGE=60", 1000));
+        assertTrue(RadioInfoHttpCache.hasFreshness("Max-Age=60"));
+        assertFalse(RadioInfoHttpCache.hasFreshness("Public"));
+    }
+
+    @Test
+    public void freshForTimeToLiveTest() throws Exception {
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport();
+        String address = "http://localhost/" + System.nanoTime();
+        transport.serve(address, 200, new HashMap<String, String>(),
+                        new byte[] { 1 });
+        transport.serve(address + "/now", 200, new HashMap<String, String>(),
+                        new byte[] { 1 });
+        RadioInfoHttpCache cache = new RadioInfoHttpCache(folder.getRoot(),
+                                                          1024, transport);
+
+        cache.get(address, RadioInfoResourceType.CHANNELS, null);
+        cache.get(address, RadioInfoResourceType.CHANNELS, null);
+        assertEquals(1, transport.getRequestCount());
+        assertEquals(1, cache.getHitCount());
+        cache.get(address + "/now", RadioInfoResourceType.NOW_PLAYING, null);
+        cache.get(address + "/now", RadioInfoResourceType.NOW_PLAYING, null);
+        assertEquals(3, transport.getRequestCount());
+    }
+
+    @Test
+    public void notModifiedRefreshesExpiryTest() throws Exception {
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport();
+        RadioInfoHttpCache cache = new RadioInfoHttpCache(folder.getRoot(),
+                                                          1024, transport);
+
+        transport.serve(ADDRESS, 200, eTagHeaders("no-cache"), BODY);
+        assertArrayEquals(BODY, cache.get(ADDRESS, null));
+        transport.serve(ADDRESS, 200, eTagHeaders("max-age=3600"), BODY);
+        assertArrayEquals(BODY, cache.get(ADDRESS, null));
+        assertArrayEquals(BODY, cache.get(ADDRESS, null));
+        assertEquals(2, transport.getRequestCount());
+        assertEquals("\"v1\"", transport.getSent(1).get("If-None-Match"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getNotModifiedCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void notModifiedWithoutSavedBodyTest() throws Exception {
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport();
+        transport.serve(ADDRESS, 200, eTagHeaders("no-cache"), BODY);
+        RadioInfoHttpCache cache = new RadioInfoHttpCache(folder.getRoot(),
+                                                          1024, transport);
+
+        cache.get(ADDRESS, null);
+        for (File file : folder.getRoot().listFiles()) {
+            if (file.getName().endsWith(".body")) {
+                assertTrue(file.delete());
+            }
+        }
+        assertArrayEquals(BODY, cache.get(ADDRESS, null));
+        assertEquals(3, transport.getRequestCount());
+        assertNull(transport.getSent(2).get("If-None-Match"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void partlyReadBodyNotSavedTest() throws Exception {
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport();
+        transport.serve(ADDRESS, 200, eTagHeaders("max-age=3600"), BODY);
+        RadioInfoHttpCache cache = new RadioInfoHttpCache(folder.getRoot(),
+                                                          1024, transport);
+
+        RadioInfoHttpCache.Body body = cache.open(ADDRESS, null, null);
+        assertEquals(1, body.read());
+        body.close();
+        assertNull(body.getHash());
+        assertArrayEquals(BODY, cache.get(ADDRESS, null));
+        assertEquals(2, transport.getRequestCount());
+        assertNull(transport.getSent(1).get("If-None-Match"));
+        assertArrayEquals(BODY, cache.get(ADDRESS, null));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void savedHashTest() throws Exception {
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport();
+        transport.serve(ADDRESS, 200, eTagHeaders("max-age=3600"), BODY);
+        RadioInfoHttpCache cache = new RadioInfoHttpCache(folder.getRoot(),
+                                                          1024, transport);
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(BODY);
+
+        RadioInfoHttpCache.Body body = cache.open(ADDRESS, null, null);
+        assertNull(body.getHash());
+        body.readToEnd();
+        body.close();
+        assertArrayEquals(hash, body.getHash());
+        /* A new cache reads the hash from disk before the body is read. */
+        cache = new RadioInfoHttpCache(folder.getRoot(), 1024, transport);
+        body = cache.open(ADDRESS, null, null);
+        assertArrayEquals(hash, body.getHash());
+        body.close();
+        assertEquals(1, transport.getRequestCount());
+    }
+
+    /**
+     * Gets response headers with the ETag "v1".
+     * @param cacheControl  String - the Cache-Control header, null if none.
+     * @return  Map - the headers by name.
+     */
+    private static Map<String, String> eTagHeaders(String cacheControl) {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("ETag", "\"v1\"");
+        if (cacheControl != null) {
+            headers.put("Cache-Control", cacheControl);
+        }
+        return headers;
+    }
+}
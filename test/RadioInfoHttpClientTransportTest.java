@@ -0,0 +1,34 @@
+package src;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoHttpClientTransportTest {
+
+    @Test
+    public void createTransportTest() {
+        RadioInfoTransport transport;
+        transport = new RadioInfoHttpClientTransport(1000, 1000);
+        assertNotNull(transport);
+    }
+
+    @Test(expected = IOException.class)
+    public void badAddressTest() throws Exception {
+        RadioInfoTransport transport;
+        transport = new RadioInfoHttpClientTransport(1000, 1000);
+        transport.get("bad address", new HashMap<String, String>());
+    }
+
+    @Test(expected = MalformedURLException.class)
+    public void badPortTest() throws Exception {
+        RadioInfoTransport transport;
+        transport = new RadioInfoHttpClientTransport(1000, 1000);
+        transport.get("http://localhost:http://localhost/",
+                      new HashMap<String, String>());
+    }
+}
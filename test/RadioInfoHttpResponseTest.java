@@ -0,0 +1,40 @@
+package src;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoHttpResponseTest {
+
+    @Test
+    public void getHeaderAnyCaseTest() throws Exception {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("etag", "\"abc\"");
+        RadioInfoHttpResponse response = new RadioInfoHttpResponse(200,
+                headers, new byte[3], 2);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"abc\"", response.getHeader("ETag"));
+        assertNull(response.getHeader("Last-Modified"));
+        assertEquals(3, RadioInfoHttpCache.readAll(response.getBody()).
+                     length);
+        assertEquals(2, response.getWireBytes());
+    }
+
+    @Test
+    public void countWireBytesTest() throws Exception {
+        RadioInfoCountingInputStream wire = new RadioInfoCountingInputStream(
+                new ByteArrayInputStream(new byte[5]));
+        RadioInfoHttpResponse response = new RadioInfoHttpResponse(200,
+                new HashMap<String, String>(), wire, wire);
+
+        assertEquals(0, response.getWireBytes());
+        assertEquals(5, RadioInfoHttpCache.readAll(response.getBody()).
+                     length);
+        assertEquals(5, response.getWireBytes());
+    }
+}
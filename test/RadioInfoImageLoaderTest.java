@@ -0,0 +1,38 @@
+package src;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoImageLoaderTest {
+    /* Room for two 10x10 images. */
+    RadioInfoImageLoader imageLoader = new RadioInfoImageLoader(800);
+
+    private BufferedImage createImage() {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @Test
+    public void getCachedImageTest() throws Exception {
+        assertNull(imageLoader.getCachedImage("imageTest"));
+        BufferedImage image = createImage();
+        imageLoader.putCachedImage("imageTest", image);
+        assertSame(image, imageLoader.getCachedImage("imageTest"));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedTest() throws Exception {
+        imageLoader.putCachedImage("first", createImage());
+        imageLoader.putCachedImage("second", createImage());
+        /* Use the first image so the second is the least recently used. */
+        assertNotNull(imageLoader.getCachedImage("first"));
+        imageLoader.putCachedImage("third", createImage());
+
+        assertEquals(2, imageLoader.getCachedCount());
+        assertNotNull(imageLoader.getCachedImage("first"));
+        assertNull(imageLoader.getCachedImage("second"));
+        assertNotNull(imageLoader.getCachedImage("third"));
+    }
+}
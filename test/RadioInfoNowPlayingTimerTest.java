@@ -0,0 +1,16 @@
+package src;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoNowPlayingTimerTest {
+    RadioInfoController controller = new RadioInfoController("xmlAddress");
+
+    @Test
+    public void createNowPlayingTimerTest() {
+        RadioInfoNowPlayingTimer nowPlayingTimer;
+        nowPlayingTimer = new RadioInfoNowPlayingTimer(controller);
+        assertNotNull(nowPlayingTimer);
+    }
+}
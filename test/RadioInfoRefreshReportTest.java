@@ -0,0 +1,48 @@
+package src;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoRefreshReportTest {
+    RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+
+    @Test
+    public void countCacheHitTest() throws Exception {
+        report.countCacheHit();
+        assertEquals(1, report.getCacheHits());
+    }
+
+    @Test
+    public void countNotModifiedTest() throws Exception {
+        report.countNotModified();
+        assertEquals(1, report.getNotModified());
+    }
+
+    @Test
+    public void countDownloadTest() throws Exception {
+        report.countDownload(100);
+        report.countDownload(50);
+        assertEquals(2, report.getDownloads());
+        assertEquals(150, report.getDownloadedBytes());
+    }
+
+    @Test
+    public void countSkippedPageTest() throws Exception {
+        report.countSkippedPage();
+        assertEquals(1, report.getSkippedPages());
+    }
+
+    @Test
+    public void countRetryTest() throws Exception {
+        report.countRetry();
+        assertEquals(1, report.getRetries());
+    }
+
+    @Test
+    public void addErrorTest() throws Exception {
+        report.addError("errorTest");
+        assertEquals(1, report.getErrors().size());
+        assertEquals("errorTest", report.getErrors().get(0));
+    }
+}
@@ -0,0 +1,132 @@
+package src;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoRefreshSchedulerTest {
+    RadioInfoController controller = new RadioInfoController("xmlAddress");
+    RadioInfoRefreshScheduler scheduler = new RadioInfoRefreshScheduler(
+            controller, 60, 15, 360, 1, 10);
+
+    @After
+    public void stopScheduler() throws Exception {
+        scheduler.stop();
+    }
+
+    @Test
+    public void firstDelayTest() throws Exception {
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+        assertEquals(60, scheduler.getRefreshDelay(state, createChannel(),
+                                                   0));
+    }
+
+    @Test
+    public void unchangedChannelLaterTest() throws Exception {
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+        RadioChannelInfo channelInfo = createChannel();
+        scheduler.getRefreshDelay(state, channelInfo, 0);
+        assertEquals(120, scheduler.getRefreshDelay(state, channelInfo, 0));
+        assertEquals(240, scheduler.getRefreshDelay(state, channelInfo, 0));
+        assertEquals(360, scheduler.getRefreshDelay(state, channelInfo, 0));
+    }
+
+    @Test
+    public void changedChannelSoonerTest() throws Exception {
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+        scheduler.getRefreshDelay(state, createChannel(), 0);
+        assertEquals(30, scheduler.getRefreshDelay(state, createChannel(), 0));
+        assertEquals(15, scheduler.getRefreshDelay(state, createChannel(), 0));
+        assertEquals(15, scheduler.getRefreshDelay(state, createChannel(), 0));
+    }
+
+    @Test
+    public void sameScheduleHashLaterTest() throws Exception {
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+        RadioChannelInfo channelInfo = createChannel();
+        channelInfo.setScheduleHash(new byte[] { 1 });
+        scheduler.getRefreshDelay(state, channelInfo, 0);
+        channelInfo = createChannel();
+        channelInfo.setScheduleHash(new byte[] { 1 });
+        assertEquals(120, scheduler.getRefreshDelay(state, channelInfo, 0));
+        channelInfo = createChannel();
+        channelInfo.setScheduleHash(new byte[] { 2 });
+        assertEquals(60, scheduler.getRefreshDelay(state, channelInfo, 0));
+    }
+
+    @Test
+    public void errorBackoffTest() throws Exception {
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+        RadioChannelInfo channelInfo = createChannel();
+        channelInfo.setStale(true);
+        assertEquals(1, scheduler.getRefreshDelay(state, channelInfo, 0));
+        assertEquals(2, scheduler.getRefreshDelay(state, channelInfo, 0));
+        assertEquals(4, scheduler.getRefreshDelay(state, channelInfo, 0));
+        assertEquals(60, scheduler.getRefreshDelay(state, createChannel(), 0));
+    }
+
+    @Test
+    public void refreshBeforeScheduleRunsOutTest() throws Exception {
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+        RadioChannelInfo channelInfo = createChannel();
+        RadioEpisodeInfo episodeInfo = new RadioEpisodeInfo("last");
+        episodeInfo.setEndTime(1050);
+        channelInfo.addEpisodeInfo(episodeInfo);
+        assertEquals(40, scheduler.getRefreshDelay(state, channelInfo, 1000));
+        assertEquals(15, scheduler.getRefreshDelay(state, channelInfo, 1040));
+    }
+
+    @Test
+    public void channelWithoutScheduleTest() throws Exception {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(132);
+        assertEquals(-1, scheduler.channelUpdated(channelInfo));
+        assertEquals(60, scheduler.channelUpdated(createChannel()));
+    }
+
+    @Test
+    public void removedChannelForgottenTest() throws Exception {
+        RadioChannelInfo channelInfo = createChannel();
+        assertEquals(60, scheduler.channelUpdated(channelInfo));
+        assertEquals(120, scheduler.channelUpdated(channelInfo));
+        scheduler.channelRemoved(132);
+        scheduler.channelRemoved(164);
+        assertEquals(60, scheduler.channelUpdated(channelInfo));
+    }
+
+    @Test
+    public void cancelTimerTest() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> timer = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 0, 10);
+        while (runs.get() == 0) {
+            Thread.sleep(5);
+        }
+        assertTrue(timer.cancel(false));
+        Thread.sleep(20);
+        int cancelledRuns = runs.get();
+        Thread.sleep(50);
+        assertEquals(cancelledRuns, runs.get());
+    }
+
+    private RadioChannelInfo createChannel() {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(132);
+        channelInfo.setScheduleURL("scheduleURL");
+        return channelInfo;
+    }
+}
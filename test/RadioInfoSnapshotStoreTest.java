@@ -0,0 +1,85 @@
+package src;
+
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoSnapshotStoreTest {
+    File file = new File(System.getProperty("java.io.tmpdir"),
+                         "radioinfo-snapshot-test.bin");
+    RadioInfoSnapshotStore store = new RadioInfoSnapshotStore(file);
+
+    @Test
+    public void loadMissingTest() throws Exception {
+        RadioInfoSnapshotStore missing = new RadioInfoSnapshotStore(
+                new File(file.getPath() + ".missing"));
+        assertNull(missing.load());
+    }
+
+    @Test
+    public void saveAndLoadTest() throws Exception {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(132);
+        channelInfo.setName("nameTest");
+        RadioEpisodeInfo episodeInfo = new RadioEpisodeInfo("episodeTest");
+        episodeInfo.setStartTime(1000L);
+        episodeInfo.setEndTime(2000L);
+        channelInfo.addEpisodeInfo(episodeInfo);
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        store.save(new RadioInfoSnapshot(channels, 1500L));
+
+        RadioInfoSnapshot loaded = store.load();
+        assertNotNull(loaded);
+        assertEquals(1500L, loaded.getUpdateTime());
+        RadioChannelInfo loadedChannel = loaded.getChannelInfo(132);
+        assertEquals("nameTest", loadedChannel.getName());
+        assertNull(loadedChannel.getChannelType());
+        RadioEpisodeInfo loadedEpisode;
+        loadedEpisode = loadedChannel.getEpisodeInfo("episodeTest", 1000L);
+        assertEquals(2000L, loadedEpisode.getEndTime());
+        assertFalse(loadedChannel.isStale());
+    }
+
+    @Test
+    public void saveStaleChannelTest() throws Exception {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(132);
+        channelInfo.setStale(true);
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        store.save(new RadioInfoSnapshot(channels, 1500L));
+
+        assertTrue(store.load().getChannelInfo(132).isStale());
+    }
+
+    @Test
+    public void saveOverLoadedTest() throws Exception {
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        store.save(new RadioInfoSnapshot(channels, 1000L));
+        assertEquals(1000L, store.load().getUpdateTime());
+        store.save(new RadioInfoSnapshot(channels, 2000L));
+        assertEquals(2000L, store.load().getUpdateTime());
+    }
+
+    @Test
+    public void loadOldVersionTest() throws Exception {
+        DataOutputStream out = new DataOutputStream(
+                new FileOutputStream(file));
+        try {
+            out.writeInt(0x52414449);
+            out.writeInt(1);
+            out.writeLong(1500L);
+            out.writeInt(0);
+        } finally {
+            out.close();
+        }
+        assertNull(store.load());
+    }
+}
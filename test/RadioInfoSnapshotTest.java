@@ -0,0 +1,211 @@
+package src;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoSnapshotTest {
+
+    @Test
+    public void emptySnapshotTest() throws Exception {
+        assertTrue(RadioInfoSnapshot.EMPTY.getChannelInfoList().isEmpty());
+    }
+
+    @Test
+    public void getChannelInfoTest() throws Exception {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(132);
+        channelInfo.setName("nameTest");
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 1000L);
+
+        assertSame(channelInfo, snapshot.getChannelInfo("nameTest"));
+        assertSame(channelInfo, snapshot.getChannelInfo(132));
+        assertEquals(1000L, snapshot.getUpdateTime());
+    }
+
+    @Test
+    public void snapshotNotChangedByListTest() throws Exception {
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 0);
+        channels.add(new RadioChannelInfo());
+        assertTrue(snapshot.getChannelInfoList().isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotReadOnlyTest() throws Exception {
+        RadioInfoSnapshot.EMPTY.getChannelInfoList().add(
+                new RadioChannelInfo());
+    }
+
+    @Test
+    public void withNowPlayingReplacesEpisodeTest() throws Exception {
+        RadioChannelInfo channelInfo = createChannel(132);
+        channelInfo.addEpisodeInfo(createEpisode("first", 0, 100));
+        channelInfo.addEpisodeInfo(createEpisode("second", 100, 200));
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 0);
+
+        RadioChannelInfo nowInfo = createChannel(132);
+        nowInfo.addEpisodeInfo(createEpisode("live", 100, 150));
+        List<RadioChannelInfo> nowPlaying = new ArrayList<RadioChannelInfo>();
+        nowPlaying.add(nowInfo);
+        RadioInfoSnapshot patched = snapshot.withNowPlaying(nowPlaying, 120);
+
+        List<RadioEpisodeInfo> episodes = patched.getChannelInfo(132).
+                getEpisodesInfoList();
+        assertEquals(2, episodes.size());
+        assertEquals("first", episodes.get(0).getTitle());
+        assertEquals("live", episodes.get(1).getTitle());
+        assertEquals(120, patched.getUpdateTime());
+        assertEquals(2, channelInfo.getEpisodesInfoList().size());
+        assertEquals("second", channelInfo.getEpisodesInfoList().get(1).
+                getTitle());
+    }
+
+    @Test
+    public void withNowPlayingKeepsUnchangedChannelTest() throws Exception {
+        RadioChannelInfo channelInfo = createChannel(132);
+        channelInfo.addEpisodeInfo(createEpisode("first", 0, 100));
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 0);
+
+        RadioChannelInfo nowInfo = createChannel(132);
+        nowInfo.addEpisodeInfo(createEpisode("first", 0, 100));
+        List<RadioChannelInfo> nowPlaying = new ArrayList<RadioChannelInfo>();
+        nowPlaying.add(nowInfo);
+        RadioInfoSnapshot patched = snapshot.withNowPlaying(nowPlaying, 50);
+
+        assertSame(channelInfo, patched.getChannelInfo(132));
+    }
+
+    @Test
+    public void withNowPlayingPatchesOnlyPlayingChannelsTest()
+            throws Exception {
+        RadioChannelInfo quiet = createChannel(1);
+        quiet.addEpisodeInfo(createEpisode("quiet", 0, 100));
+        RadioChannelInfo channelInfo = createChannel(2);
+        channelInfo.addEpisodeInfo(createEpisode("first", 0, 100));
+        channelInfo.addEpisodeInfo(createEpisode("second", 100, 150));
+        channelInfo.addEpisodeInfo(createEpisode("third", 150, 200));
+        channelInfo.addEpisodeInfo(createEpisode("fourth", 200, 300));
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(quiet);
+        channels.add(channelInfo);
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 0);
+
+        RadioChannelInfo nowInfo = createChannel(2);
+        nowInfo.addEpisodeInfo(createEpisode("first", 0, 100));
+        nowInfo.addEpisodeInfo(createEpisode("long", 100, 200));
+        List<RadioChannelInfo> nowPlaying = new ArrayList<RadioChannelInfo>();
+        nowPlaying.add(createChannel(99));
+        nowPlaying.add(nowInfo);
+        RadioInfoSnapshot patched = snapshot.withNowPlaying(nowPlaying, 50);
+
+        assertEquals(2, patched.getChannelInfoList().size());
+        assertSame(quiet, patched.getChannelInfoList().get(0));
+        assertNull(patched.getChannelInfo(99));
+        List<RadioEpisodeInfo> episodes = patched.getChannelInfo(2).
+                getEpisodesInfoList();
+        assertEquals(3, episodes.size());
+        assertEquals("first", episodes.get(0).getTitle());
+        assertEquals("long", episodes.get(1).getTitle());
+        assertSame(channelInfo.getEpisodesInfoList().get(3), episodes.get(2));
+        assertEquals(4, channelInfo.getEpisodesInfoList().size());
+        assertSame(channelInfo, snapshot.getChannelInfo(2));
+    }
+
+    @Test
+    public void reuseUnchangedTest() throws Exception {
+        RadioChannelInfo channelInfo = createChannel(132);
+        channelInfo.addEpisodeInfo(createEpisode("first", 0, 100));
+        channelInfo.addEpisodeInfo(createEpisode("second", 100, 200));
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 0);
+
+        RadioChannelInfo same = createChannel(132);
+        same.addEpisodeInfo(createEpisode("first", 0, 100));
+        same.addEpisodeInfo(createEpisode("second", 100, 200));
+        List<RadioChannelInfo> fetched = new ArrayList<RadioChannelInfo>();
+        fetched.add(same);
+        assertSame(channelInfo, snapshot.reuseUnchanged(fetched).get(0));
+
+        RadioChannelInfo changed = createChannel(132);
+        changed.addEpisodeInfo(createEpisode("second", 100, 200));
+        changed.addEpisodeInfo(createEpisode("third", 200, 300));
+        fetched = new ArrayList<RadioChannelInfo>();
+        fetched.add(changed);
+        RadioChannelInfo reused = snapshot.reuseUnchanged(fetched).get(0);
+        assertNotSame(channelInfo, reused);
+        assertSame(channelInfo.getEpisodesInfoList().get(1),
+                   reused.getEpisodesInfoList().get(0));
+        assertEquals("third", reused.getEpisodesInfoList().get(1).getTitle());
+    }
+
+    @Test
+    public void reuseChannelTwiceTest() throws Exception {
+        RadioChannelInfo channelInfo = createChannel(132);
+        channelInfo.addEpisodeInfo(createEpisode("first", 0, 100));
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(channelInfo);
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 0);
+
+        RadioChannelInfo same = createChannel(132);
+        same.addEpisodeInfo(createEpisode("first", 0, 100));
+        assertSame(channelInfo, snapshot.reuseUnchanged(same));
+
+        RadioChannelInfo changed = createChannel(132);
+        changed.addEpisodeInfo(createEpisode("first", 0, 100));
+        changed.addEpisodeInfo(createEpisode("second", 100, 200));
+        RadioChannelInfo reused = snapshot.reuseUnchanged(changed);
+        assertSame(reused, snapshot.reuseUnchanged(reused));
+
+        RadioChannelInfo other = createChannel(7);
+        assertSame(other, snapshot.reuseUnchanged(other));
+    }
+
+    private RadioChannelInfo createChannel(int id) {
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(id);
+        channelInfo.setName("name" + id);
+        return channelInfo;
+    }
+
+    private RadioEpisodeInfo createEpisode(String title, long startTime,
+                                           long endTime) {
+        RadioEpisodeInfo episodeInfo = new RadioEpisodeInfo(title);
+        episodeInfo.setStartTime(startTime);
+        episodeInfo.setEndTime(endTime);
+        return episodeInfo;
+    }
+
+    @Test
+    public void withChannelTest() throws Exception {
+        RadioChannelInfo first = createChannel(132);
+        RadioChannelInfo second = createChannel(164);
+        List<RadioChannelInfo> channels = new ArrayList<RadioChannelInfo>();
+        channels.add(first);
+        channels.add(second);
+        RadioInfoSnapshot snapshot = new RadioInfoSnapshot(channels, 10);
+
+        RadioChannelInfo loaded = createChannel(164);
+        loaded.addEpisodeInfo(createEpisode("first", 0, 100));
+        RadioInfoSnapshot patched = snapshot.withChannel(loaded);
+
+        assertNotSame(snapshot, patched);
+        assertEquals(10, patched.getUpdateTime());
+        assertSame(first, patched.getChannelInfoList().get(0));
+        assertEquals(1, patched.getChannelInfo(164).getEpisodesInfoList().
+                        size());
+        assertTrue(second.getEpisodesInfoList().isEmpty());
+        assertSame(snapshot, snapshot.withChannel(createChannel(132)));
+        assertSame(snapshot, snapshot.withChannel(createChannel(1)));
+    }
+}
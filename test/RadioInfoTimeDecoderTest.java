@@ -0,0 +1,39 @@
+package src;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoTimeDecoderTest {
+
+    @Test
+    public void decodeEpochTest() throws Exception {
+        assertEquals(0L, RadioInfoTimeDecoder.decode("1970-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void decodeTest() throws Exception {
+        SimpleDateFormat format = new SimpleDateFormat
+                                  ("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String[] times = { "2017-12-28T13:45:07Z", "2000-02-29T23:59:59Z",
+                           "2024-03-01T00:00:00Z", "1969-12-31T23:59:59Z" };
+        for (String time : times) {
+            assertEquals(format.parse(time).getTime(),
+                         RadioInfoTimeDecoder.decode(time));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeMalformedTest() throws Exception {
+        RadioInfoTimeDecoder.decode("2017-12-28 13:45:07");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeNotDigitsTest() throws Exception {
+        RadioInfoTimeDecoder.decode("2017-1a-28T13:45:07Z");
+    }
+}
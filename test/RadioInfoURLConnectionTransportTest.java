@@ -0,0 +1,15 @@
+package src;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoURLConnectionTransportTest {
+
+    @Test
+    public void createTransportTest() {
+        RadioInfoTransport transport;
+        transport = new RadioInfoURLConnectionTransport(1000, 1000);
+        assertNotNull(transport);
+    }
+}
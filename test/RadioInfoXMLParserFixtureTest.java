@@ -0,0 +1,428 @@
+package src;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RadioInfoXMLParserFixtureTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static final String API = "http://api.sr.se/api/v2/";
+    /* 2026-10-18 12:00 UTC, the time span is 00:00 to 24:00 UTC. */
+    static final RadioInfoTimeSpan TIME_SPAN = new RadioInfoTimeSpan(
+            1792324800000L, 12, 12);
+
+    /* Recorded channel pages, two channels on the first page. */
+    static final String CHANNELS_PAGE_1 =
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<sr>\n" +
+            "  <copyright>Copyright Sveriges Radio 2026. All rights " +
+            "reserved.</copyright>\n" +
+            "  <pagination>\n" +
+            "    <page>1</page>\n" +
+            "    <size>2</size>\n" +
+            "    <totalhits>3</totalhits>\n" +
+            "    <totalpages>2</totalpages>\n" +
+            "    <nextpage>" + API + "channels?page=2&amp;size=2" +
+            "</nextpage>\n" +
+            "  </pagination>\n" +
+            "  <channels>\n" +
+            "    <channel id=\"132\" name=\"P1\">\n" +
+            "      <image>https://static-cdn.sr.se/images/132/p1.jpg" +
+            "</image>\n" +
+            "      <color>31a1bd</color>\n" +
+            "      <tagline>Det talade ordet</tagline>\n" +
+            "      <siteurl>https://sverigesradio.se/p1</siteurl>\n" +
+            "      <liveaudio id=\"132\">\n" +
+            "        <url>https://sverigesradio.se/topsy/direkt/132-hi.mp3" +
+            "</url>\n" +
+            "      </liveaudio>\n" +
+            "      <scheduleurl>" + API + "scheduledepisodes?channelid=132" +
+            "</scheduleurl>\n" +
+            "      <channeltype>Rikskanal</channeltype>\n" +
+            "      <xmltvid>p1.sr.se</xmltvid>\n" +
+            "    </channel>\n" +
+            "    <channel id=\"164\" name=\"P3\">\n" +
+            "      <image>https://static-cdn.sr.se/images/164/p3.jpg" +
+            "</image>\n" +
+            "      <color>c5444b</color>\n" +
+            "      <scheduleurl>" + API + "scheduledepisodes?channelid=164" +
+            "</scheduleurl>\n" +
+            "      <channeltype>Rikskanal</channeltype>\n" +
+            "    </channel>\n" +
+            "  </channels>\n" +
+            "</sr>\n";
+    static final String CHANNELS_PAGE_2 =
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<sr>\n" +
+            "  <pagination>\n" +
+            "    <page>2</page>\n" +
+            "    <size>2</size>\n" +
+            "    <totalhits>3</totalhits>\n" +
+            "    <totalpages>2</totalpages>\n" +
+            "    <previouspage>" + API + "channels?page=1&amp;size=2" +
+            "</previouspage>\n" +
+            "  </pagination>\n" +
+            "  <channels>\n" +
+            "    <channel id=\"4540\" name=\"Ekot s\u00e4nder direkt\">\n" +
+            "      <channeltype>Extrakanaler</channeltype>\n" +
+            "    </channel>\n" +
+            "  </channels>\n" +
+            "</sr>\n";
+
+    /* Recorded schedule of P1 on two pages, from the day before the time
+     * span to after it. */
+    static final String P1_SCHEDULE_PAGE_1 =
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<sr>\n" +
+            "  <pagination>\n" +
+            "    <page>1</page>\n" +
+            "    <size>3</size>\n" +
+            "    <totalhits>5</totalhits>\n" +
+            "    <totalpages>2</totalpages>\n" +
+            "    <nextpage>" + API + "scheduledepisodes?channelid=132&amp;" +
+            "fromdate=2026-10-17&amp;todate=2026-10-19&amp;size=3&amp;" +
+            "page=2</nextpage>\n" +
+            "  </pagination>\n" +
+            "  <schedule>\n" +
+            episode(1001, "Kv\u00e4llspasset", "Musik och samtal.",
+                    "2026-10-17T22:00:00Z", "2026-10-17T23:00:00Z", "") +
+            episode(1002, "Nattpasset", "Genom natten.",
+                    "2026-10-17T23:30:00Z", "2026-10-18T01:00:00Z", "") +
+            episode(1003, "Morgonpasset", "Nyheter och v\u00e4der.",
+                    "2026-10-18T05:00:00Z", "2026-10-18T08:00:00Z",
+                    "    <program id=\"4916\">\n" +
+                    "      <title>Programmets titel</title>\n" +
+                    "    </program>\n") +
+            "  </schedule>\n" +
+            "</sr>\n";
+    static final String P1_SCHEDULE_PAGE_2 =
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<sr>\n" +
+            "  <pagination>\n" +
+            "    <page>2</page>\n" +
+            "    <size>3</size>\n" +
+            "    <totalhits>5</totalhits>\n" +
+            "    <totalpages>2</totalpages>\n" +
+            "  </pagination>\n" +
+            "  <schedule>\n" +
+            episode(1004, "Sent i kv\u00e4ll", "Till midnatt och lite till.",
+                    "2026-10-18T23:00:00Z", "2026-10-19T01:00:00Z", "") +
+            episode(1005, "Nattpasset", "Genom natten.",
+                    "2026-10-19T01:00:00Z", "2026-10-19T02:00:00Z", "") +
+            "  </schedule>\n" +
+            "</sr>\n";
+    static final String P3_SCHEDULE =
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<sr>\n" +
+            "  <pagination>\n" +
+            "    <page>1</page>\n" +
+            "    <size>500</size>\n" +
+            "    <totalhits>1</totalhits>\n" +
+            "    <totalpages>1</totalpages>\n" +
+            "  </pagination>\n" +
+            "  <schedule>\n" +
+            episode(2001, "Morgonpasset i P3", "Vakna med P3.",
+                    "2026-10-18T06:00:00Z", "2026-10-18T09:00:00Z", "") +
+            "  </schedule>\n" +
+            "</sr>\n";
+
+    /* Serves the recorded pages, the date and size parameters left out. */
+    RadioInfoFakeTransport transport = new RadioInfoFakeTransport() {
+        @Override
+        String getKey(String address) {
+            return address.replaceAll("&(fromdate|todate|size)=[^&]*", "")
+                          .replaceAll("\\?size=[^&]*&", "?");
+        }
+    };
+    RadioInfoController controller = new RadioInfoController(API +
+                                                             "channels") {
+        @Override
+        public RadioInfoTimeSpan getTimeSpan() {
+            return TIME_SPAN;
+        }
+    };
+    RadioInfoXMLParser parser;
+
+    @Before
+    public void setUp() throws Exception {
+        put(API + "channels", CHANNELS_PAGE_1);
+        put(API + "channels?page=2", CHANNELS_PAGE_2);
+        put(API + "scheduledepisodes?channelid=132",
+                      P1_SCHEDULE_PAGE_1);
+        put(API + "scheduledepisodes?channelid=132&page=2",
+                      P1_SCHEDULE_PAGE_2);
+        put(API + "scheduledepisodes?channelid=164", P3_SCHEDULE);
+        parser = new RadioInfoXMLParser(API + "channels", 2,
+                new RadioInfoHttpCache(folder.newFolder(), 1 << 20,
+                                       transport));
+        /* The published snapshot is shared, start from an empty one. */
+        controller.publishChannels(new ArrayList<RadioChannelInfo>());
+    }
+
+    @Test
+    public void readChannelsTest() throws Exception {
+        List<RadioChannelInfo> channels = update(new RadioInfoRefreshReport());
+
+        assertEquals(3, channels.size());
+        RadioChannelInfo p1 = channels.get(0);
+        assertEquals(132, p1.getId());
+        assertEquals("P1", p1.getName());
+        assertEquals("Rikskanal", p1.getChannelType());
+        assertEquals(API + "scheduledepisodes?channelid=132",
+                     p1.getScheduleURL());
+        assertEquals(164, channels.get(1).getId());
+        RadioChannelInfo ekot = channels.get(2);
+        assertEquals("Ekot s\u00e4nder direkt", ekot.getName());
+        assertEquals("Extrakanaler", ekot.getChannelType());
+        assertNull(ekot.getScheduleURL());
+        assertTrue(ekot.getEpisodesInfoList().isEmpty());
+    }
+
+    @Test
+    public void readEpisodesTest() throws Exception {
+        List<RadioChannelInfo> channels = update(new RadioInfoRefreshReport());
+
+        RadioEpisodeInfo morning = channels.get(0).getEpisodeInfo(
+                "Morgonpasset", 1792299600000L);
+        assertNotNull(morning);
+        assertEquals(1003, morning.getEpisodeId());
+        assertEquals("Nyheter och v\u00e4der.", morning.getDescription());
+        assertEquals("2026-10-18T05:00:00Z", morning.getStartTimeUTC());
+        assertEquals(1792310400000L, morning.getEndTime());
+        assertEquals("https://static-cdn.sr.se/images/1003.jpg",
+                     morning.getImageURL());
+        for (RadioEpisodeInfo episodeInfo :
+                channels.get(0).getEpisodesInfoList()) {
+            assertFalse("Programmets titel".equals(episodeInfo.getTitle()));
+        }
+        assertEquals("Morgonpasset i P3", channels.get(1).
+                getEpisodesInfoList().get(0).getTitle());
+    }
+
+    @Test
+    public void paginationFanOutTest() throws Exception {
+        final List<Integer> fetched = new ArrayList<Integer>();
+        final int[] totalHits = new int[1];
+        RadioInfoUpdateWorker worker = new RadioInfoUpdateWorker(controller) {
+            @Override
+            public void createUpdateProgress(int totalValue) {
+                totalHits[0] = totalValue;
+            }
+
+            @Override
+            public void channelFetched(int index,
+                                       RadioChannelInfo channelInfo) {
+                synchronized (fetched) {
+                    fetched.add(index);
+                }
+            }
+        };
+        parser.getRadioInfo(controller, worker, new RadioInfoRefreshReport());
+
+        assertEquals(3, totalHits[0]);
+        assertEquals(3, fetched.size());
+        assertTrue(fetched.containsAll(Arrays.asList(0, 1, 2)));
+        assertTrue(transport.isRequested(API + "channels?page=2"));
+        assertTrue(transport.isRequested(API +
+                "scheduledepisodes?channelid=132&page=2"));
+    }
+
+    @Test
+    public void timeSpanFilterTest() throws Exception {
+        List<RadioChannelInfo> channels = update(new RadioInfoRefreshReport());
+
+        List<String> titles = new ArrayList<String>();
+        for (RadioEpisodeInfo episodeInfo :
+                channels.get(0).getEpisodesInfoList()) {
+            titles.add(episodeInfo.getTitle());
+        }
+        /* Started the evening before and ended after the time span
+         * started, ended before it, and started after it. */
+        assertEquals(3, titles.size());
+        assertEquals("Nattpasset", titles.get(0));
+        assertEquals("Morgonpasset", titles.get(1));
+        assertEquals("Sent i kv\u00e4ll", titles.get(2));
+        assertTrue(transport.getAddress(API +
+                "scheduledepisodes?channelid=132").contains(
+                "fromdate=2026-10-17&todate=2026-10-19"));
+    }
+
+    @Test
+    public void unchangedPagesSkippedTest() throws Exception {
+        List<RadioChannelInfo> first = update(new RadioInfoRefreshReport());
+        RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+        List<RadioChannelInfo> second = update(report);
+
+        assertEquals(3, report.getSkippedPages());
+        assertEquals(5, report.getNotModified());
+        assertEquals(0, report.getDownloads());
+        assertSame(first.get(0).getEpisodesInfoList().get(1),
+                   second.get(0).getEpisodesInfoList().get(1));
+    }
+
+    @Test
+    public void unchangedDownloadReusedTest() throws Exception {
+        /* Without validators the page is downloaded every time. */
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Cache-Control", "no-cache");
+        transport.serve(API + "scheduledepisodes?channelid=164", headers,
+                        P3_SCHEDULE);
+        List<RadioChannelInfo> first = update(new RadioInfoRefreshReport());
+        RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+        List<RadioChannelInfo> second = update(report);
+
+        assertEquals(3, report.getSkippedPages());
+        assertEquals(1, report.getDownloads());
+        assertSame(first.get(1).getEpisodesInfoList().get(0),
+                   second.get(1).getEpisodesInfoList().get(0));
+    }
+
+    @Test
+    public void changedPageParsedTest() throws Exception {
+        update(new RadioInfoRefreshReport());
+        put(API + "scheduledepisodes?channelid=164",
+                      P3_SCHEDULE.replace("Vakna med P3.", "Ny text."));
+        RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+        List<RadioChannelInfo> channels = update(report);
+
+        assertEquals(2, report.getSkippedPages());
+        assertEquals("Ny text.", channels.get(1).getEpisodesInfoList().
+                get(0).getDescription());
+    }
+
+    @Test
+    public void failedScheduleKeepsLastTest() throws Exception {
+        controller.publishChannels(update(new RadioInfoRefreshReport()));
+        RadioChannelInfo published = controller.getSnapshot().
+                getChannelInfo(164);
+        transport.serve(API + "scheduledepisodes?channelid=164", 404,
+                        new HashMap<String, String>(), new byte[0]);
+        RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+        List<RadioChannelInfo> channels = update(report);
+
+        RadioChannelInfo p3 = channels.get(1);
+        assertTrue(p3.isStale());
+        assertEquals(1, p3.getEpisodesInfoList().size());
+        assertSame(published.getEpisodesInfoList().get(0),
+                   p3.getEpisodesInfoList().get(0));
+        assertFalse(channels.get(0).isStale());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.getErrors().get(0).startsWith("P3: "));
+    }
+
+    /**
+     * Runs an update of every channel with a worker that shows nothing.
+     */
+    private List<RadioChannelInfo> update(RadioInfoRefreshReport report)
+            throws Exception {
+        RadioInfoUpdateWorker worker = new RadioInfoUpdateWorker(controller) {
+            @Override
+            public void createUpdateProgress(int totalValue) {
+            }
+
+            @Override
+            public void channelFetched(int index,
+                                       RadioChannelInfo channelInfo) {
+            }
+        };
+        return parser.getRadioInfo(controller, worker, report);
+    }
+
+    /**
+     * Builds a recorded scheduled episode.
+     */
+    private static String episode(long id, String title, String description,
+                                  String start, String end, String program) {
+        return "    <scheduledepisode>\n" +
+               "      <episodeid>" + id + "</episodeid>\n" +
+               program +
+               "      <title>" + title + "</title>\n" +
+               "      <description>" + description + "</description>\n" +
+               "      <starttimeutc>" + start + "</starttimeutc>\n" +
+               "      <endtimeutc>" + end + "</endtimeutc>\n" +
+               "      <channel id=\"132\" name=\"P1\" />\n" +
+               "      <imageurl>https://static-cdn.sr.se/images/" + id +
+               ".jpg</imageurl>\n" +
+               "    </scheduledepisode>\n";
+    }
+
+    @Test
+    public void staleChannelRefreshedTest() throws Exception {
+        transport.serve(API + "scheduledepisodes?channelid=164", 404,
+                        new HashMap<String, String>(), new byte[0]);
+        controller.publishChannels(update(new RadioInfoRefreshReport()));
+        RadioChannelInfo stale = controller.getSnapshot().getChannelInfo(164);
+        put(API + "scheduledepisodes?channelid=164", P3_SCHEDULE);
+        RadioChannelInfo refreshed = parser.submitSchedule(stale, TIME_SPAN,
+                2, controller, new RadioInfoRefreshReport()).get();
+        RadioInfoRefreshScheduler scheduler = new RadioInfoRefreshScheduler(
+                controller, 60, 15, 360, 1, 10);
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+
+        try {
+            assertTrue(stale.isStale());
+            assertFalse(refreshed.isStale());
+            assertEquals(1, refreshed.getEpisodesInfoList().size());
+            assertEquals(1, scheduler.getRefreshDelay(state, stale, 0));
+            assertEquals(60, scheduler.getRefreshDelay(state, refreshed, 0));
+            /* The errors in a row start over. */
+            assertEquals(1, scheduler.getRefreshDelay(state, stale, 0));
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void samePageLaterIntervalGrowsTest() throws Exception {
+        update(new RadioInfoRefreshReport());
+        RadioChannelInfo p3 = new RadioChannelInfo();
+        p3.setId(164);
+        p3.setScheduleURL(API + "scheduledepisodes?channelid=164");
+        RadioChannelInfo first = parser.submitSchedule(p3, TIME_SPAN, 2,
+                controller, new RadioInfoRefreshReport()).get();
+        /* Nine hours later the morning episode has left the time span. */
+        RadioChannelInfo later = parser.submitSchedule(p3,
+                new RadioInfoTimeSpan(TIME_SPAN.getUpdateTime() +
+                                      9 * 3600 * 1000, 12, 12), 2,
+                controller, new RadioInfoRefreshReport()).get();
+        RadioInfoRefreshScheduler scheduler = new RadioInfoRefreshScheduler(
+                controller, 60, 15, 360, 1, 10);
+        RadioInfoRefreshScheduler.ChannelState state;
+        state = new RadioInfoRefreshScheduler.ChannelState(60);
+
+        try {
+            assertEquals(1, first.getEpisodesInfoList().size());
+            assertTrue(later.getEpisodesInfoList().isEmpty());
+            assertEquals(60, scheduler.getRefreshDelay(state, first, 0));
+            assertEquals(120, scheduler.getRefreshDelay(state, later, 0));
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    /**
+     * Serves a recorded page. Every page has an ETag and must be
+     * revalidated.
+     * @param address   String - the address, without date and size.
+     * @param page      String - the page.
+     */
+    private void put(String address, String page) {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Cache-Control", "no-cache");
+        headers.put("ETag", "\"" + Integer.toHexString(page.hashCode()) +
+                            "\"");
+        transport.serve(address, headers, page);
+    }
+}
@@ -1,6 +1,28 @@
 package src;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.MalformedURLException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -8,6 +30,9 @@ public class RadioInfoXMLParserTest {
     String address = "xmlAddress";
     RadioInfoXMLParser xmlParser = new RadioInfoXMLParser(address);
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void createXMLParserTest() {
         assertNotNull(xmlParser);
@@ -17,4 +42,214 @@ public class RadioInfoXMLParserTest {
     public void getXmlAddressTest() throws Exception {
         assertEquals(address, xmlParser.getXmlAddress());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getWorkerCountTest() throws Exception {
+        RadioInfoXMLParser parser = new RadioInfoXMLParser(address, 4);
+        assertEquals(4, parser.getWorkerCount());
+    }
+
+    @Test
+    public void workerCountAtLeastOneTest() throws Exception {
+        RadioInfoXMLParser parser = new RadioInfoXMLParser(address, 0);
+        assertEquals(1, parser.getWorkerCount());
+    }
+
+    @Test
+    public void getScheduleAddressTest() throws Exception {
+        RadioInfoTimeSpan timeSpan = new RadioInfoTimeSpan(
+                System.currentTimeMillis(), 12, 12);
+        String scheduleAddress = RadioInfoXMLParser.getScheduleAddress(
+                "http://api.sr.se/api/v2/scheduledepisodes?channelid=132",
+                timeSpan);
+        assertTrue(scheduleAddress.matches(
+                ".*\\?channelid=132&fromdate=\\d{4}-\\d{2}-\\d{2}" +
+                "&todate=\\d{4}-\\d{2}-\\d{2}&size=\\d+"));
+    }
+
+    @Test
+    public void scheduleAddressDayBeforeTest() throws Exception {
+        /* 2026-10-18 00:30 in Stockholm, summer time. */
+        long updateTime = 1792276200000L;
+        RadioInfoTimeSpan timeSpan = new RadioInfoTimeSpan(updateTime, 0, 12);
+        String scheduleAddress = RadioInfoXMLParser.getScheduleAddress(
+                "http://api.sr.se/api/v2/scheduledepisodes?channelid=132",
+                timeSpan);
+        assertTrue(scheduleAddress.contains(
+                "fromdate=2026-10-17&todate=2026-10-18"));
+    }
+
+    @Test
+    public void scheduleTaskOrderTest() throws Exception {
+        Callable<String> callable = new Callable<String>() {
+            @Override
+            public String call() {
+                return null;
+            }
+        };
+        PriorityBlockingQueue<RadioInfoXMLParser.ScheduleTask<String>> queue;
+        queue = new PriorityBlockingQueue<
+                RadioInfoXMLParser.ScheduleTask<String>>();
+        RadioInfoXMLParser.ScheduleTask<String> rest1, rest2, favourite;
+        RadioInfoXMLParser.ScheduleTask<String> selected;
+        rest1 = new RadioInfoXMLParser.ScheduleTask<String>(2, callable);
+        favourite = new RadioInfoXMLParser.ScheduleTask<String>(1, callable);
+        rest2 = new RadioInfoXMLParser.ScheduleTask<String>(2, callable);
+        selected = new RadioInfoXMLParser.ScheduleTask<String>(0, callable);
+        queue.add(rest1);
+        queue.add(favourite);
+        queue.add(rest2);
+        queue.add(selected);
+        assertSame(selected, queue.poll());
+        assertSame(favourite, queue.poll());
+        assertSame(rest1, queue.poll());
+        assertSame(rest2, queue.poll());
+    }
+
+    @Test
+    public void coldPoolPriorityOrderTest() throws Exception {
+        RadioInfoXMLParser parser = new RadioInfoXMLParser(address, 1);
+        ThreadPoolExecutor executor = parser.getScheduleExecutor();
+        assertEquals(1, executor.getPoolSize());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> order = Collections.synchronizedList(
+                new ArrayList<Integer>());
+        executor.execute(new RadioInfoXMLParser.ScheduleTask<Integer>(2,
+                new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                started.countDown();
+                release.await();
+                return null;
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<RadioInfoXMLParser.ScheduleTask<Integer>> tasks;
+        tasks = new ArrayList<RadioInfoXMLParser.ScheduleTask<Integer>>();
+        for (final int priority : new int[] { 2, 1, 0 }) {
+            RadioInfoXMLParser.ScheduleTask<Integer> task;
+            task = new RadioInfoXMLParser.ScheduleTask<Integer>(priority,
+                    new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    order.add(priority);
+                    return priority;
+                }
+            });
+            tasks.add(task);
+            executor.execute(task);
+        }
+        release.countDown();
+        for (RadioInfoXMLParser.ScheduleTask<Integer> task : tasks) {
+            task.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0, (int) order.get(0));
+        assertEquals(1, (int) order.get(1));
+        assertEquals(2, (int) order.get(2));
+    }
+
+    @Test
+    public void isTransientTest() throws Exception {
+        assertTrue(RadioInfoXMLParser.isTransient(
+                new RadioInfoHttpException(503, address)));
+        assertTrue(RadioInfoXMLParser.isTransient(
+                new RadioInfoHttpException(429, address)));
+        assertTrue(RadioInfoXMLParser.isTransient(
+                new SocketTimeoutException()));
+        assertFalse(RadioInfoXMLParser.isTransient(
+                new RadioInfoHttpException(404, address)));
+        assertFalse(RadioInfoXMLParser.isTransient(
+                new MalformedURLException()));
+    }
+
+    @Test
+    public void readErrorTransientTest() throws Exception {
+        assertTrue(RadioInfoXMLParser.isTransient(new XMLStreamException(
+                new SocketException("Connection reset"))));
+        assertTrue(RadioInfoXMLParser.isTransient(new XMLStreamException(
+                new SocketTimeoutException())));
+        assertFalse(RadioInfoXMLParser.isTransient(new XMLStreamException(
+                "Unexpected end of file")));
+    }
+
+    @Test
+    public void bodyReadErrorRetriedTest() throws Exception {
+        final String page = "<?xml version=\"1.0\"?>\n<sr>\n<channels>\n" +
+                            "</channels>\n</sr>\n";
+        final int[] failures = { 1 };
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport() {
+            @Override
+            public synchronized RadioInfoHttpResponse get(String address,
+                    Map<String, String> headers) {
+                RadioInfoHttpResponse response = super.get(address, headers);
+                if (failures[0]-- <= 0) {
+                    return response;
+                }
+                /* The connection is reset after the first bytes. */
+                InputStream body = new SequenceInputStream(
+                        new ByteArrayInputStream(page.substring(0, 20).
+                                getBytes(StandardCharsets.UTF_8)),
+                        new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new SocketException("Connection reset");
+                    }
+                });
+                return new RadioInfoHttpResponse(200,
+                        new HashMap<String, String>(), body,
+                        new RadioInfoCountingInputStream(body));
+            }
+        };
+        transport.serve("http://localhost/rightnow",
+                        new HashMap<String, String>(), page);
+        RadioInfoXMLParser parser = new RadioInfoXMLParser(address, 1,
+                new RadioInfoHttpCache(folder.newFolder(), 1024, transport));
+        RadioInfoRefreshReport report = new RadioInfoRefreshReport();
+
+        assertTrue(parser.getNowPlaying("http://localhost/rightnow",
+                new RadioInfoController(address), report).isEmpty());
+        assertEquals(2, transport.getRequestCount());
+        assertEquals(1, report.getRetries());
+    }
+
+    @Test
+    public void clientErrorNotRetriedTest() throws Exception {
+        RadioInfoFakeTransport transport = new RadioInfoFakeTransport();
+        RadioInfoXMLParser parser = new RadioInfoXMLParser(address, 1,
+                new RadioInfoHttpCache(folder.newFolder(), 1024, transport));
+        boolean isThrown = false;
+        try {
+            parser.getNowPlaying("http://localhost/rightnow",
+                                 new RadioInfoController(address),
+                                 new RadioInfoRefreshReport());
+        } catch (RadioInfoHttpException e) {
+            isThrown = e.getStatus() == 404;
+        }
+        assertTrue(isThrown);
+        assertEquals(1, transport.getRequestCount());
+    }
+
+    @Test
+    public void failedScheduleRunsWhenDoneTest() throws Exception {
+        RadioInfoTransport transport = new RadioInfoFakeTransport();
+        RadioInfoXMLParser parser = new RadioInfoXMLParser(address, 1,
+                new RadioInfoHttpCache(folder.newFolder(), 1024, transport));
+        RadioChannelInfo channelInfo = new RadioChannelInfo();
+        channelInfo.setId(132);
+        channelInfo.setScheduleURL("http://localhost/schedule");
+        final CountDownLatch done = new CountDownLatch(1);
+        RadioInfoController controller = new RadioInfoController(address);
+        RadioChannelInfo loaded = parser.submitSchedule(channelInfo,
+                controller.createTimeSpan(), 2, controller,
+                new RadioInfoRefreshReport(), new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        }).get();
+
+        assertTrue(loaded.isStale());
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+    }
+}